@@ -0,0 +1,78 @@
+package com.mistasoup.chatprotect.benchmarks;
+
+import com.mistasoup.chatprotect.utils.BlockedWordMatcher;
+import com.mistasoup.chatprotect.utils.MessageUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocked word lookup with small, large and huge word lists.
+ * findMatch is what the chat path runs, containsBlockedWord recompiles
+ * the list on every call and is here to keep that cost visible.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockedWordBenchmark {
+    
+    @Param({"20", "500", "5000"})
+    public int wordCount;
+    
+    @Param({"realistic", "adversarial"})
+    public String corpus;
+    
+    private List<String> words;
+    private BlockedWordMatcher matcher;
+    private String[] lines;
+    private String[] normalized;
+    private int index;
+    
+    @Setup
+    public void setup() {
+        words = ChatCorpus.blockedWords(wordCount);
+        matcher = BlockedWordMatcher.compile(words);
+        lines = ChatCorpus.lines(corpus);
+        normalized = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            normalized[i] = MessageUtils.normalizeMessage(lines[i]);
+        }
+    }
+    
+    private int next() {
+        if (++index == lines.length) {
+            index = 0;
+        }
+        return index;
+    }
+    
+    @Benchmark
+    public String findMatch() {
+        int i = next();
+        return matcher.findMatch(lines[i], normalized[i]);
+    }
+    
+    @Benchmark
+    public boolean containsBlockedWord() {
+        return MessageUtils.containsBlockedWord(lines[next()], words);
+    }
+    
+    @Benchmark
+    public BlockedWordMatcher compile() {
+        return BlockedWordMatcher.compile(words);
+    }
+}
\ No newline at end of file
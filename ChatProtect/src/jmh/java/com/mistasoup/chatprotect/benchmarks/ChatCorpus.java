@@ -0,0 +1,172 @@
+package com.mistasoup.chatprotect.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Chat lines and blocked word lists shared by the benchmarks.
+ * Everything is generated from fixed seeds so runs are comparable.
+ */
+final class ChatCorpus {
+    
+    private static final String[] REALISTIC = {
+        "gg",
+        "lol",
+        "hi",
+        "anyone wanna trade diamonds?",
+        "where is spawn",
+        "how do i claim land",
+        "brb dinner",
+        "can someone tp me pls",
+        "selling 64 iron for 10 diamonds, msg me",
+        "who griefed my base???",
+        "nice build!",
+        "is the end reset yet",
+        "wb",
+        "ty",
+        "im lagging so hard rn",
+        "does anyone have a silk touch pick i can borrow",
+        "the nether hub is at 200 -300",
+        "ok",
+        "lmao that creeper got you",
+        "what version is the server on",
+        "join my town, free food and beds",
+        "anyone online from europe?",
+        "bruh",
+        "i just found a mending book in a village",
+        "whats the command for home",
+        "good morning everyone",
+        "cya tomorrow",
+        "does pvp work in the wild",
+        "ill pay 5 diamonds for an elytra",
+        "that was so close lol"
+    };
+    
+    private static final String[] ADVERSARIAL = {
+        // Leetspeak and symbol swaps
+        "fr33 d14m0nd5 4t my b4s3!!!",
+        "j0in my s3rv3r n0w 4 fr33 r4nks",
+        "$3ll1ng @cc0unt$ ch3@p",
+        "h.e.l.l.o e.v.e.r.y.o.n.e",
+        "w w w . c h e a p - c o i n s . c o m",
+        "gggggggggggggggggggggggggggggggggggggggggggg",
+        "!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!",
+        // Unicode: homoglyphs, accents, CJK, emoji, combining marks
+        "рrіvеt еvеryоnе",
+        "crème brûlée naïve café",
+        "你好世界 こんにちは",
+        "😀😀😀 free stuff 🔥🔥",
+        "ź̂̃ā̅̆l̇̈g̉̊ő̌",
+        "ｆｕｌｌｗｉｄｔｈ ｔｅｘｔ",
+        // Near-duplicates of each other
+        "buy cheap coins at my shop",
+        "buy cheap coins at my shop!",
+        "buy cheap c0ins at my sh0p",
+        "BUY CHEAP COINS AT MY SHOP"
+    };
+    
+    private static final String PASTE_TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+        + "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation "
+        + "ullamco laboris nisi ut aliquip ex ea commodo consequat. ";
+    
+    private static final String[] SYLLABLES = {
+        "ba", "ko", "ri", "ta", "ne", "shi", "mu", "lo", "ga", "zu", "pe", "vi", "dra", "kle", "sto", "fu", "ck", "sh", "it", "xo"
+    };
+    
+    private static final String[] COMMON_BLOCKED = {
+        "fuck", "shit", "bitch", "cunt", "nigger", "faggot", "retard", "whore", "slut", "dick",
+        "pussy", "asshole", "bastard", "wanker", "twat", "cock", "nazi", "kys", "discord.gg", "freecoins"
+    };
+    
+    private ChatCorpus() {
+    }
+    
+    /**
+     * Lines for the named corpus: realistic, adversarial or mixed
+     */
+    static String[] lines(String name) {
+        List<String> lines = new ArrayList<>();
+        switch (name) {
+            case "realistic":
+                addAll(lines, REALISTIC);
+                break;
+            case "adversarial":
+                addAll(lines, ADVERSARIAL);
+                addPastes(lines);
+                break;
+            case "mixed":
+                addAll(lines, REALISTIC);
+                addAll(lines, ADVERSARIAL);
+                addPastes(lines);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown corpus: " + name);
+        }
+        return lines.toArray(new String[0]);
+    }
+    
+    /**
+     * A long sequence of messages drawn from the named corpus, about half of them
+     * with a few extra words, so a player's history sees repeats, near-repeats and
+     * fresh messages in a realistic mix instead of the same small set every lap
+     */
+    static String[] stream(String name, int size) {
+        String[] lines = lines(name);
+        String[] words = String.join(" ", REALISTIC).split(" ");
+        Random random = new Random(7L);
+        
+        String[] stream = new String[size];
+        for (int i = 0; i < size; i++) {
+            String line = lines[random.nextInt(lines.length)];
+            if (random.nextBoolean()) {
+                int extra = 1 + random.nextInt(3);
+                StringBuilder builder = new StringBuilder(line);
+                for (int j = 0; j < extra; j++) {
+                    builder.append(' ').append(words[random.nextInt(words.length)]);
+                }
+                line = builder.toString();
+            }
+            stream[i] = line;
+        }
+        return stream;
+    }
+    
+    /**
+     * count blocked words: the common ones first, then made-up words of 3-10 letters
+     */
+    static List<String> blockedWords(int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < Math.min(count, COMMON_BLOCKED.length); i++) {
+            words.add(COMMON_BLOCKED[i]);
+        }
+        
+        Random random = new Random(42L);
+        while (words.size() < count) {
+            StringBuilder word = new StringBuilder();
+            int targetLength = 3 + random.nextInt(8);
+            while (word.length() < targetLength) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+    
+    private static void addAll(List<String> lines, String[] source) {
+        for (String line : source) {
+            lines.add(line);
+        }
+    }
+    
+    /**
+     * Long pastes up to the 256 character chat limit
+     */
+    private static void addPastes(List<String> lines) {
+        String paste = PASTE_TEXT + PASTE_TEXT;
+        lines.add(paste.substring(0, 256));
+        lines.add(paste.substring(40, 240));
+        lines.add("a".repeat(256));
+        lines.add("spam ".repeat(51));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.mistasoup.chatprotect.benchmarks;
+
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.data.PlayerData;
+import com.mistasoup.chatprotect.filters.DuplicateFilter;
+import com.mistasoup.chatprotect.filters.FilterResult;
+import com.mistasoup.chatprotect.filters.MessageContext;
+import com.mistasoup.chatprotect.utils.DebugLog;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The whole duplicate check for one message against a player's history:
+ * DuplicateFilter with the default config (normalize, cooldown lookup,
+ * similarity scan, repeat counting) plus the history update the pipeline
+ * does for messages that pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateCheckBenchmark {
+    
+    private static final int STREAM_SIZE = 4096;
+    
+    @Param({"10", "50"})
+    public int historySize;
+    
+    @Param({"realistic", "adversarial", "mixed"})
+    public String corpus;
+    
+    private String[] lines;
+    private ConfigSnapshot config;
+    private DuplicateFilter filter;
+    private PlayerData playerData;
+    private int index;
+    
+    @Setup
+    public void setup() {
+        lines = ChatCorpus.stream(corpus, STREAM_SIZE);
+        config = new ConfigSnapshot(new YamlConfiguration()); // Every setting at its default
+        filter = new DuplicateFilter(new DebugLog(Logger.getLogger("DuplicateCheckBenchmark"))); // Debug and verbose off
+        playerData = new PlayerData(historySize);
+        for (int i = 0; i < historySize; i++) {
+            playerData.addMessage(lines[i % lines.length]);
+        }
+    }
+    
+    @Benchmark
+    public FilterResult checkMessage() {
+        if (++index == lines.length) {
+            index = 0;
+        }
+        MessageContext context = new BenchmarkContext(lines[index], config, playerData);
+        
+        synchronized (playerData) {
+            FilterResult result = filter.check(context);
+            if (result == FilterResult.PASS) {
+                playerData.addMessage(context.getEntry());
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * Hands out the benchmark's PlayerData instead of looking the sender up
+     */
+    private static final class BenchmarkContext extends MessageContext {
+        
+        private final PlayerData playerData;
+        
+        private BenchmarkContext(String message, ConfigSnapshot config, PlayerData playerData) {
+            super(null, message, Channel.PUBLIC, config, null);
+            this.playerData = playerData;
+        }
+        
+        @Override
+        public PlayerData getPlayerData() {
+            return playerData;
+        }
+    }
+}
\ No newline at end of file
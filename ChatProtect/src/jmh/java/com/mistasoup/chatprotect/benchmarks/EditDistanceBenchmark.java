@@ -0,0 +1,70 @@
+package com.mistasoup.chatprotect.benchmarks;
+
+import com.mistasoup.chatprotect.utils.MessageUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar (banded) vs Vector API edit distance on pairs of long messages that are
+ * about 90% alike, at the band width the similarity check uses for a threshold.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class EditDistanceBenchmark {
+    
+    @Param({"64", "256", "1024"})
+    public int length;
+    
+    @Param({"75", "50", "0"})
+    public int threshold;
+    
+    private String first;
+    private String second;
+    private int maxDistance;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        first = new String(chars);
+        for (int i = 0; i < length / 10; i++) {
+            chars[random.nextInt(length)] = (char) ('a' + random.nextInt(26));
+        }
+        second = new String(chars);
+        maxDistance = length * (100 - threshold) / 100;
+    }
+    
+    @Benchmark
+    public int scalar() {
+        return MessageUtils.scalarLevenshteinDistance(first, second, maxDistance);
+    }
+    
+    @Benchmark
+    public int vector() {
+        return MessageUtils.vectorLevenshteinDistance(first, second, maxDistance);
+    }
+    
+    @Benchmark
+    public int dispatched() {
+        return MessageUtils.levenshteinDistance(first, second, maxDistance);
+    }
+}
\ No newline at end of file
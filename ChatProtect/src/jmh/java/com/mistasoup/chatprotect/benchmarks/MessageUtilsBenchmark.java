@@ -0,0 +1,76 @@
+package com.mistasoup.chatprotect.benchmarks;
+
+import com.mistasoup.chatprotect.utils.MessageUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalization and similarity on single messages.
+ * Each call takes the next line of the corpus, so branch predictors
+ * and caches see a realistic mix instead of one repeated string.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageUtilsBenchmark {
+    
+    @Param({"realistic", "adversarial"})
+    public String corpus;
+    
+    private String[] lines;
+    private String[] normalized;
+    private int index;
+    
+    @Setup
+    public void setup() {
+        lines = ChatCorpus.lines(corpus);
+        normalized = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            normalized[i] = MessageUtils.normalizeMessage(lines[i]);
+        }
+    }
+    
+    private int next() {
+        if (++index == lines.length) {
+            index = 0;
+        }
+        return index;
+    }
+    
+    @Benchmark
+    public String normalizeMessage() {
+        return MessageUtils.normalizeMessage(lines[next()]);
+    }
+    
+    @Benchmark
+    public int levenshteinDistance() {
+        int i = next();
+        return MessageUtils.levenshteinDistance(normalized[i], normalized[(i + 1) % normalized.length]);
+    }
+    
+    @Benchmark
+    public double calculateSimilarity() {
+        int i = next();
+        return MessageUtils.calculateSimilarity(normalized[i], normalized[(i + 1) % normalized.length]);
+    }
+    
+    @Benchmark
+    public boolean isSimilar() {
+        int i = next();
+        return MessageUtils.isSimilar(normalized[i], normalized[(i + 1) % normalized.length], 75.0);
+    }
+}
\ No newline at end of file
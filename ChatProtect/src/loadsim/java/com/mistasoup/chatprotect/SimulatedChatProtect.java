@@ -0,0 +1,32 @@
+package com.mistasoup.chatprotect;
+
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+
+/**
+ * The real plugin, started without listener or command registration
+ * (the load simulator submits chat itself). Lives in the plugin's package
+ * because the constructor it needs is package-private, and is only compiled
+ * by the loadsim profile.
+ */
+public final class SimulatedChatProtect extends ChatProtect {
+    
+    public SimulatedChatProtect(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder) {
+        super(loader, description, dataFolder, new File(dataFolder, "ChatProtect.jar"));
+    }
+    
+    @Override
+    public void onEnable() {
+        startServices();
+    }
+    
+    public void enable() {
+        setEnabled(true);
+    }
+    
+    public void disable() {
+        setEnabled(false);
+    }
+}
\ No newline at end of file
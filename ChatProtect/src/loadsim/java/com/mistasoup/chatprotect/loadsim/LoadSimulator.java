@@ -0,0 +1,473 @@
+package com.mistasoup.chatprotect.loadsim;
+
+import com.mistasoup.chatprotect.SimulatedChatProtect;
+import com.mistasoup.chatprotect.handlers.ChatChannel;
+import com.mistasoup.chatprotect.listeners.PrivateMessageListener;
+import com.mistasoup.chatprotect.utils.LatencyHistogram;
+import org.bukkit.Bukkit;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Headless load driver for the chat pipeline.
+ *
+ * Runs the real plugin (config, managers, filter pipeline, broadcast) against
+ * stand-in players and replays an open-loop workload in real time: normal chat
+ * and PMs at a steady rate, spammers sending bursts, and a bot raid joining
+ * halfway. Chat is handed to the ModerationExecutor at its scheduled time, like
+ * ChatListener does, and PMs to a worker pool, so a backlog shows up as
+ * end-to-end latency instead of a slower send rate.
+ *
+ * Run with: mvn -Ploadsim compile exec:java -Dsim.players=5000 -Dsim.duration=120
+ * See Scenario for every setting.
+ */
+public final class LoadSimulator {
+    
+    private static final long BURST_SPACING_NANOS = TimeUnit.MILLISECONDS.toNanos(150);
+    private static final long RAID_SPACING_NANOS = TimeUnit.MILLISECONDS.toNanos(1500);
+    
+    private static final String[] PHRASES = {
+        "gg", "lol", "anyone wanna trade diamonds?", "where is spawn", "how do i claim land", "brb",
+        "can someone tp me pls", "selling 64 iron for 10 diamonds", "who griefed my base", "nice build!",
+        "is the end reset yet", "wb", "im lagging so hard rn", "does anyone have a silk touch pick",
+        "the nether hub is at 200 -300", "lmao that creeper got you", "what version is the server on",
+        "join my town, free food and beds", "anyone online from europe?", "i just found a mending book",
+        "whats the command for home", "good morning everyone", "cya tomorrow", "does pvp work in the wild"
+    };
+    
+    private static final String[] WORDS = {
+        "please", "today", "again", "lol", "haha", "now", "guys", "bro", "ok", "really", "soon", "maybe",
+        "diamonds", "netherite", "base", "farm", "villager", "end", "spawn", "town", "shop", "trade"
+    };
+    
+    private static final String[] SPAM_LINES = {
+        "JOIN MY SERVER play.example-mc.net BEST SERVER",
+        "selling ranks cheap msg me",
+        "free op at my base come now",
+        "follow my stream twitch.tv/example"
+    };
+    
+    private static final String RAID_LINE = "this server is dead join discord.gg/raidexample";
+    
+    private static final String[] VARIANTS = {"", "!", "!!", " pls", " 1", " 2", "?", " !!!"};
+    
+    private final Scenario scenario;
+    private final Random random;
+    private final List<SimPlayer> players = new ArrayList<>(); // Normal players and spammers
+    private final List<SimPlayer> normalPlayers = new ArrayList<>();
+    private final List<SimPlayer> raiders = new ArrayList<>();
+    private final LatencyHistogram endToEnd = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final Map<SimPlayer.Cohort, CohortStats> cohorts = new EnumMap<>(SimPlayer.Cohort.class);
+    private final ThreadLocal<SimPlayer> sending = new ThreadLocal<>(); // Sender of the chat task on this thread
+    private final AtomicLong pendingChat = new AtomicLong();
+    private final PriorityQueue<ScheduledEvent> events = new PriorityQueue<>(
+        Comparator.comparingLong((ScheduledEvent event) -> event.atNanos).thenComparingLong(event -> event.sequence));
+    
+    private StandIns standIns;
+    private SimulatedChatProtect plugin;
+    private ChatChannel chatChannel;
+    private PrivateMessageListener pmListener;
+    private ExecutorService workers;
+    private long sequence;
+    
+    private LoadSimulator(Scenario scenario) {
+        this.scenario = scenario;
+        this.random = new Random(scenario.seed);
+        for (SimPlayer.Cohort cohort : SimPlayer.Cohort.values()) {
+            cohorts.put(cohort, new CohortStats());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new LoadSimulator(Scenario.fromSystemProperties()).run();
+    }
+    
+    private void run() throws Exception {
+        System.out.println("ChatProtect load simulation: " + scenario.describe());
+        
+        setUp();
+        
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long start = System.nanoTime();
+        
+        drive(start);
+        
+        workers.shutdown();
+        if (!workers.awaitTermination(2, TimeUnit.MINUTES) || !awaitChat(TimeUnit.MINUTES.toNanos(2))) {
+            System.out.println("Queued messages did not drain within 2 minutes, results are partial");
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+        
+        report(elapsedNanos, allocatedBefore < 0 ? -1 : allocated);
+        
+        plugin.disable();
+        standIns.shutdown();
+    }
+    
+    private void setUp() throws Exception {
+        Path dataFolder = Paths.get("target", "loadsim");
+        deleteRecursively(dataFolder);
+        Files.createDirectories(dataFolder);
+        
+        standIns = new StandIns(2);
+        Bukkit.setServer(standIns.getServer());
+        // Allowed chat is echoed to the console from the thread that checked it
+        standIns.onConsoleMessage(() -> {
+            SimPlayer sender = sending.get();
+            if (sender != null) {
+                cohorts.get(sender.getCohort()).chatAllowed.increment();
+            }
+        });
+        
+        PluginDescriptionFile description;
+        try (InputStream in = LoadSimulator.class.getClassLoader().getResourceAsStream("plugin.yml")) {
+            if (in == null) {
+                throw new IllegalStateException("plugin.yml not on the classpath, run mvn compile first");
+            }
+            description = new PluginDescriptionFile(in);
+        }
+        
+        plugin = new SimulatedChatProtect(new JavaPluginLoader(standIns.getServer()), description, dataFolder.toFile());
+        applyConfigOverrides();
+        plugin.enable();
+        
+        chatChannel = new ChatChannel(plugin);
+        pmListener = new PrivateMessageListener(plugin);
+        
+        int spammers = (int) Math.round(scenario.players * scenario.spammerRatio);
+        for (int i = 0; i < scenario.players; i++) {
+            SimPlayer.Cohort cohort = i < spammers ? SimPlayer.Cohort.SPAMMER : SimPlayer.Cohort.NORMAL;
+            SimPlayer player = new SimPlayer(i, cohort, standIns);
+            players.add(player);
+            if (cohort == SimPlayer.Cohort.NORMAL) {
+                normalPlayers.add(player);
+            }
+            standIns.join(player);
+            plugin.getPlayerNameIndex().add(player.getPlayer());
+        }
+        for (int i = 0; i < scenario.raidBots; i++) {
+            raiders.add(new SimPlayer(scenario.players + i, SimPlayer.Cohort.RAIDER, standIns));
+        }
+        
+        workers = Executors.newFixedThreadPool(scenario.threads, runnable -> {
+            Thread thread = new Thread(runnable, "LoadSim Chat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Written before the plugin starts, so settings read only at startup
+     * (moderation threads, storage type) apply too
+     */
+    private void applyConfigOverrides() {
+        plugin.saveDefaultConfig();
+        for (Map.Entry<String, String> override : scenario.configOverrides.entrySet()) {
+            plugin.getConfig().set(override.getKey(), parseValue(override.getValue()));
+        }
+        plugin.saveConfig();
+    }
+    
+    private static Object parseValue(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ignored) {
+            // Not an int
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ignored) {
+            return value;
+        }
+    }
+    
+    /**
+     * Replay the workload in real time on this thread
+     */
+    private void drive(long start) {
+        long end = start + TimeUnit.SECONDS.toNanos(scenario.durationSeconds);
+        double meanGapNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(0.001, scenario.messagesPerMinute);
+        double meanBurstGapNanos = TimeUnit.SECONDS.toNanos(scenario.burstIntervalSeconds);
+        
+        for (SimPlayer player : players) {
+            if (player.getCohort() == SimPlayer.Cohort.SPAMMER) {
+                scheduleBurst(player, start + exponential(meanBurstGapNanos), meanBurstGapNanos);
+            } else {
+                scheduleNormal(player, start + exponential(meanGapNanos), meanGapNanos);
+            }
+        }
+        if (!raiders.isEmpty()) {
+            schedule(start + TimeUnit.SECONDS.toNanos(scenario.raidAtSeconds), this::startRaid);
+        }
+        
+        while (!events.isEmpty()) {
+            ScheduledEvent next = events.peek();
+            if (next.atNanos >= end) {
+                break;
+            }
+            long wait = next.atNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            events.poll();
+            next.action.accept(next.atNanos);
+        }
+    }
+    
+    private void scheduleNormal(SimPlayer player, long at, double meanGapNanos) {
+        schedule(at, now -> {
+            String text = normalMessage();
+            if (random.nextDouble() < scenario.pmRatio && normalPlayers.size() > 1) {
+                SimPlayer target = normalPlayers.get(random.nextInt(normalPlayers.size()));
+                if (target != player) {
+                    submitPrivateMessage(player, target, text, now);
+                } else {
+                    submitChat(player, text, now);
+                }
+            } else {
+                submitChat(player, text, now);
+            }
+            scheduleNormal(player, now + exponential(meanGapNanos), meanGapNanos);
+        });
+    }
+    
+    private void scheduleBurst(SimPlayer player, long at, double meanBurstGapNanos) {
+        schedule(at, now -> {
+            String line = SPAM_LINES[random.nextInt(SPAM_LINES.length)];
+            for (int i = 0; i < scenario.burstSize; i++) {
+                String text = line + VARIANTS[random.nextInt(VARIANTS.length)];
+                schedule(now + i * BURST_SPACING_NANOS, sendAt -> submitChat(player, text, sendAt));
+            }
+            scheduleBurst(player, now + exponential(meanBurstGapNanos), meanBurstGapNanos);
+        });
+    }
+    
+    private void startRaid(long now) {
+        for (SimPlayer raider : raiders) {
+            standIns.join(raider);
+            plugin.getPlayerNameIndex().add(raider.getPlayer());
+            long at = now + (long) (random.nextDouble() * RAID_SPACING_NANOS);
+            for (int i = 0; i < scenario.raidMessages; i++) {
+                String text = (random.nextBoolean() ? RAID_LINE : RAID_LINE.toUpperCase()) + VARIANTS[random.nextInt(VARIANTS.length)];
+                schedule(at + i * RAID_SPACING_NANOS, sendAt -> submitChat(raider, text, sendAt));
+            }
+        }
+    }
+    
+    private String normalMessage() {
+        String text = PHRASES[random.nextInt(PHRASES.length)];
+        if (random.nextBoolean()) {
+            StringBuilder builder = new StringBuilder(text);
+            int extra = 1 + random.nextInt(3);
+            for (int i = 0; i < extra; i++) {
+                builder.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            text = builder.toString();
+        }
+        return text;
+    }
+    
+    private void submitChat(SimPlayer sender, String text, long scheduledAt) {
+        CohortStats stats = cohorts.get(sender.getCohort());
+        stats.chatSent.increment();
+        pendingChat.incrementAndGet();
+        
+        boolean queued = plugin.getModerationExecutor().submit(sender.getUniqueId(), () -> {
+            long start = System.nanoTime();
+            sending.set(sender);
+            try {
+                chatChannel.processMessage(sender.getPlayer(), text);
+            } finally {
+                sending.remove();
+                finish(start, scheduledAt);
+                pendingChat.decrementAndGet();
+            }
+        });
+        if (!queued) {
+            stats.chatDropped.increment();
+            pendingChat.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Wait for every queued chat message to be checked
+     */
+    private boolean awaitChat(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (pendingChat.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+    
+    private void submitPrivateMessage(SimPlayer sender, SimPlayer target, String text, long scheduledAt) {
+        CohortStats stats = cohorts.get(sender.getCohort());
+        workers.execute(() -> {
+            long start = System.nanoTime();
+            pmListener.onCommand(new PlayerCommandPreprocessEvent(sender.getPlayer(), "/msg " + target.getName() + " " + text));
+            finish(start, scheduledAt);
+            stats.pmSent.increment();
+        });
+    }
+    
+    private void finish(long startNanos, long scheduledAt) {
+        long now = System.nanoTime();
+        serviceTime.record(now - startNanos);
+        endToEnd.record(now - scheduledAt);
+    }
+    
+    private void schedule(long atNanos, TimedAction action) {
+        events.add(new ScheduledEvent(atNanos, sequence++, action));
+    }
+    
+    private long exponential(double meanNanos) {
+        return (long) (-Math.log(1.0 - random.nextDouble()) * meanNanos);
+    }
+    
+    private void report(long elapsedNanos, long allocatedBytes) {
+        double seconds = elapsedNanos / 1e9;
+        long handled = serviceTime.getCount();
+        
+        System.out.println();
+        System.out.println("=== Results (" + String.format("%.1f", seconds) + "s) ===");
+        System.out.println("Messages: " + handled + " (" + String.format("%.0f", handled / seconds) + " msg/s)");
+        System.out.println("End-to-end latency: " + percentiles(endToEnd));
+        System.out.println("Service time:       " + percentiles(serviceTime));
+        if (allocatedBytes >= 0) {
+            System.out.println("Allocation: " + String.format("%.1f", allocatedBytes / seconds / (1024.0 * 1024.0)) + " MB/s, "
+                + (handled == 0 ? 0 : allocatedBytes / handled) + " bytes/message (all threads)");
+        }
+        
+        long deliveries = 0;
+        for (SimPlayer player : players) {
+            deliveries += player.getReceived();
+        }
+        for (SimPlayer raider : raiders) {
+            deliveries += raider.getReceived();
+        }
+        System.out.println("Deliveries: " + deliveries);
+        
+        System.out.println();
+        System.out.println("Decisions (public chat allowed/sent, dropped with a full queue, PMs sent, players kicked, players muted):");
+        for (SimPlayer.Cohort cohort : SimPlayer.Cohort.values()) {
+            List<SimPlayer> members = new ArrayList<>();
+            for (SimPlayer player : cohort == SimPlayer.Cohort.RAIDER ? raiders : players) {
+                if (player.getCohort() == cohort) {
+                    members.add(player);
+                }
+            }
+            if (members.isEmpty()) {
+                continue;
+            }
+            
+            int kicked = 0;
+            int muted = 0;
+            for (SimPlayer member : members) {
+                if (member.getKicks() > 0) {
+                    kicked++;
+                }
+                if (plugin.getMuteManager().isMuted(member.getUniqueId())) {
+                    muted++;
+                }
+            }
+            
+            CohortStats stats = cohorts.get(cohort);
+            System.out.println("  " + cohort.name().toLowerCase() + " (" + members.size() + "): "
+                + stats.chatAllowed.sum() + "/" + stats.chatSent.sum() + " allowed, "
+                + stats.chatDropped.sum() + " dropped, " + stats.pmSent.sum() + " PMs, " + kicked + " kicked, " + muted + " muted");
+        }
+        
+        System.out.println();
+        System.out.println("Pipeline stages:");
+        for (String line : plugin.getMetricsManager().getReport()) {
+            System.out.println("  " + line);
+        }
+    }
+    
+    private static String percentiles(LatencyHistogram histogram) {
+        return "p50 " + formatNanos(histogram.getPercentile(50))
+            + ", p90 " + formatNanos(histogram.getPercentile(90))
+            + ", p99 " + formatNanos(histogram.getPercentile(99))
+            + ", p99.9 " + formatNanos(histogram.getPercentile(99.9))
+            + ", max " + formatNanos(histogram.getMaxNanos());
+    }
+    
+    private static String formatNanos(long nanos) {
+        if (nanos < 10_000L) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000L) {
+            return (nanos / 1000L) + "us";
+        }
+        return (nanos / 1_000_000L) + "ms";
+    }
+    
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface TimedAction {
+        void accept(long atNanos);
+    }
+    
+    private static final class ScheduledEvent {
+        
+        private final long atNanos;
+        private final long sequence;
+        private final TimedAction action;
+        
+        private ScheduledEvent(long atNanos, long sequence, TimedAction action) {
+            this.atNanos = atNanos;
+            this.sequence = sequence;
+            this.action = action;
+        }
+    }
+    
+    private static final class CohortStats {
+        
+        private final LongAdder chatSent = new LongAdder();
+        private final LongAdder chatAllowed = new LongAdder();
+        private final LongAdder chatDropped = new LongAdder();
+        private final LongAdder pmSent = new LongAdder();
+    }
+}
\ No newline at end of file
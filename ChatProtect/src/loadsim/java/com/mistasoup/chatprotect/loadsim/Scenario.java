@@ -0,0 +1,72 @@
+package com.mistasoup.chatprotect.loadsim;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Load simulation settings, read from sim.* system properties.
+ * sim.config.<path>=<value> overrides a config.yml value, e.g.
+ * -Dsim.config.settings.similarity-threshold=80
+ */
+final class Scenario {
+    
+    private static final String CONFIG_PREFIX = "sim.config.";
+    
+    final int players;
+    final int durationSeconds;
+    final double messagesPerMinute; // Per normal player
+    final double pmRatio; // Share of normal messages sent as /msg
+    final double spammerRatio;
+    final int burstSize; // Messages per spam burst
+    final int burstIntervalSeconds; // Average time between a spammer's bursts
+    final int raidBots;
+    final int raidAtSeconds;
+    final int raidMessages; // Messages per raid bot
+    final int threads; // Moderation threads, and the pool sending PMs
+    final long seed;
+    final Map<String, String> configOverrides;
+    
+    private Scenario(Properties properties) {
+        this.players = intValue(properties, "sim.players", 2000);
+        this.durationSeconds = intValue(properties, "sim.duration", 60);
+        this.messagesPerMinute = doubleValue(properties, "sim.rate", 4.0);
+        this.pmRatio = doubleValue(properties, "sim.pm-ratio", 0.1);
+        this.spammerRatio = doubleValue(properties, "sim.spammers", 0.02);
+        this.burstSize = intValue(properties, "sim.burst-size", 8);
+        this.burstIntervalSeconds = Math.max(1, intValue(properties, "sim.burst-interval", 20));
+        this.raidBots = intValue(properties, "sim.raid-bots", 300);
+        this.raidAtSeconds = intValue(properties, "sim.raid-at", durationSeconds / 2);
+        this.raidMessages = intValue(properties, "sim.raid-messages", 6);
+        this.threads = Math.max(1, intValue(properties, "sim.threads", Runtime.getRuntime().availableProcessors()));
+        this.seed = Long.parseLong(properties.getProperty("sim.seed", "1"));
+        
+        this.configOverrides = new LinkedHashMap<>();
+        configOverrides.put("raid-detection.enabled", "true"); // Off in config.yml, the bot raid is part of the scenario
+        configOverrides.put("moderation.threads", String.valueOf(threads));
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(CONFIG_PREFIX)) {
+                configOverrides.put(key.substring(CONFIG_PREFIX.length()), properties.getProperty(key));
+            }
+        }
+    }
+    
+    static Scenario fromSystemProperties() {
+        return new Scenario(System.getProperties());
+    }
+    
+    String describe() {
+        return players + " players, " + messagesPerMinute + " msg/player/min for " + durationSeconds + "s, "
+            + Math.round(pmRatio * 100) + "% PMs, " + Math.round(spammerRatio * 100) + "% spammers (bursts of "
+            + burstSize + "), raid of " + raidBots + " bots at " + raidAtSeconds + "s, " + threads + " threads"
+            + (configOverrides.isEmpty() ? "" : ", config " + configOverrides);
+    }
+    
+    private static int intValue(Properties properties, String key, int def) {
+        return Integer.parseInt(properties.getProperty(key, String.valueOf(def)));
+    }
+    
+    private static double doubleValue(Properties properties, String key, double def) {
+        return Double.parseDouble(properties.getProperty(key, String.valueOf(def)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.mistasoup.chatprotect.loadsim;
+
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One simulated player and what happened to it
+ */
+final class SimPlayer {
+    
+    enum Cohort {
+        NORMAL,
+        SPAMMER,
+        RAIDER
+    }
+    
+    private final UUID uuid;
+    private final String name;
+    private final Cohort cohort;
+    private final Player player;
+    private final LongAdder received = new LongAdder();
+    private final AtomicInteger kicks = new AtomicInteger();
+    
+    SimPlayer(int id, Cohort cohort, StandIns standIns) {
+        this.uuid = new UUID(0x5151L, id);
+        this.name = cohort.name().charAt(0) + "Player" + id;
+        this.cohort = cohort;
+        this.player = standIns.createPlayer(this);
+    }
+    
+    UUID getUniqueId() {
+        return uuid;
+    }
+    
+    String getName() {
+        return name;
+    }
+    
+    Cohort getCohort() {
+        return cohort;
+    }
+    
+    Player getPlayer() {
+        return player;
+    }
+    
+    void received() {
+        received.increment();
+    }
+    
+    long getReceived() {
+        return received.sum();
+    }
+    
+    void kicked() {
+        kicks.incrementAndGet();
+    }
+    
+    int getKicks() {
+        return kicks.get();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+package com.mistasoup.chatprotect.loadsim;
+
+import io.papermc.paper.threadedregions.scheduler.AsyncScheduler;
+import io.papermc.paper.threadedregions.scheduler.EntityScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Server;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Proxy-based stand-ins for the parts of the Bukkit/Paper API the plugin touches.
+ * Only the methods the chat path calls do anything, everything else returns
+ * false / 0 / null, so the simulator keeps working as the API grows.
+ */
+final class StandIns {
+    
+    private final Logger logger = Logger.getLogger("ChatProtect-LoadSim");
+    private final Map<UUID, Player> online = new ConcurrentHashMap<>();
+    private final Map<String, Player> byName = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService asyncPool;
+    private final Server server;
+    private final AsyncScheduler asyncScheduler;
+    private final ConsoleCommandSender console;
+    private final PluginManager pluginManager;
+    private volatile Runnable consoleListener = () -> { };
+    
+    StandIns(int asyncThreads) {
+        this.asyncPool = Executors.newScheduledThreadPool(asyncThreads, runnable -> {
+            Thread thread = new Thread(runnable, "LoadSim Async");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.asyncScheduler = proxy(AsyncScheduler.class, this::asyncScheduler);
+        this.console = proxy(ConsoleCommandSender.class, (method, args) -> {
+            if (method.getName().equals("sendMessage")) {
+                consoleListener.run();
+            }
+            return null;
+        });
+        this.pluginManager = proxy(PluginManager.class, (method, args) -> null);
+        this.server = proxy(Server.class, this::server);
+    }
+    
+    Server getServer() {
+        return server;
+    }
+    
+    Collection<Player> getOnlinePlayers() {
+        return Collections.unmodifiableCollection(online.values());
+    }
+    
+    /**
+     * Called on the sending thread for every line written to the console
+     */
+    void onConsoleMessage(Runnable listener) {
+        this.consoleListener = listener;
+    }
+    
+    void join(SimPlayer player) {
+        online.put(player.getUniqueId(), player.getPlayer());
+        byName.put(player.getName().toLowerCase(Locale.ROOT), player.getPlayer());
+    }
+    
+    void shutdown() {
+        asyncPool.shutdownNow();
+    }
+    
+    /**
+     * Stand-in Player backed by a SimPlayer's counters.
+     * Entity tasks run right away on the calling thread.
+     */
+    Player createPlayer(SimPlayer simPlayer) {
+        EntityScheduler scheduler = proxy(EntityScheduler.class, (method, args) -> {
+            switch (method.getName()) {
+                case "run":
+                    return runNow(castConsumer(args[1]));
+                case "execute":
+                    ((Runnable) args[1]).run();
+                    return true;
+                default:
+                    return null;
+            }
+        });
+        
+        return proxy(Player.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return simPlayer.getUniqueId();
+                case "getName":
+                    return simPlayer.getName();
+                case "isOnline":
+                    return true;
+                case "hasPermission":
+                    return false;
+                case "sendMessage":
+                    simPlayer.received();
+                    return null;
+                case "kick":
+                    simPlayer.kicked();
+                    return null;
+                case "getScheduler":
+                    return scheduler;
+                default:
+                    return null;
+            }
+        });
+    }
+    
+    private Object server(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getOnlinePlayers":
+                return getOnlinePlayers();
+            case "getPlayer":
+                if (args[0] instanceof UUID) {
+                    return online.get(args[0]);
+                }
+                return byName.get(((String) args[0]).toLowerCase(Locale.ROOT));
+            case "getPlayerExact":
+                return byName.get(((String) args[0]).toLowerCase(Locale.ROOT));
+            case "getAsyncScheduler":
+                return asyncScheduler;
+            case "getConsoleSender":
+                return console;
+            case "getPluginManager":
+                return pluginManager;
+            case "getLogger":
+                return logger;
+            case "getName":
+                return "ChatProtect-LoadSim";
+            case "getVersion":
+            case "getBukkitVersion":
+                return "loadsim";
+            default:
+                return null;
+        }
+    }
+    
+    private Object asyncScheduler(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "runNow":
+                return runNow(castConsumer(args[1]));
+            case "runDelayed": {
+                Consumer<ScheduledTask> task = castConsumer(args[1]);
+                TaskHandle handle = new TaskHandle();
+                handle.future = asyncPool.schedule(() -> task.accept(handle.proxy), (Long) args[2], (TimeUnit) args[3]);
+                return handle.proxy;
+            }
+            case "runAtFixedRate": {
+                Consumer<ScheduledTask> task = castConsumer(args[1]);
+                TaskHandle handle = new TaskHandle();
+                TimeUnit unit = (TimeUnit) args[4];
+                long delay = Math.max(1L, (Long) args[2]);
+                handle.future = asyncPool.scheduleAtFixedRate(() -> task.accept(handle.proxy), delay, (Long) args[3], unit);
+                return handle.proxy;
+            }
+            default:
+                return null;
+        }
+    }
+    
+    private ScheduledTask runNow(Consumer<ScheduledTask> task) {
+        TaskHandle handle = new TaskHandle();
+        handle.future = asyncPool.submit(() -> task.accept(handle.proxy));
+        return handle.proxy;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Consumer<ScheduledTask> castConsumer(Object consumer) {
+        return (Consumer<ScheduledTask>) consumer;
+    }
+    
+    /**
+     * A ScheduledTask whose cancel() cancels the executor future
+     */
+    private static final class TaskHandle {
+        
+        private volatile Future<?> future;
+        private final ScheduledTask proxy = proxy(ScheduledTask.class, (method, args) -> {
+            if (method.getName().equals("cancel") && future != null) {
+                future.cancel(false);
+            }
+            return null;
+        });
+    }
+    
+    @FunctionalInterface
+    interface Handler {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+    
+    static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocationHandler = (self, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    if (method.getParameterCount() == 1) {
+                        return self == args[0];
+                    }
+                    break;
+                case "hashCode":
+                    if (method.getParameterCount() == 0) {
+                        return System.identityHashCode(self);
+                    }
+                    break;
+                case "toString":
+                    if (method.getParameterCount() == 0) {
+                        return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Object result = handler.invoke(method, args == null ? new Object[0] : args);
+            return result != null ? result : defaultValue(method.getReturnType());
+        };
+        return type.cast(Proxy.newProxyInstance(StandIns.class.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+    }
+    
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return (char) 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0.0F;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
\ No newline at end of file
@@ -1,73 +1,213 @@
 package com.mistasoup.chatprotect;
 
 import com.mistasoup.chatprotect.commands.ChatProtectCommand;
+import com.mistasoup.chatprotect.filters.FilterPipeline;
 import com.mistasoup.chatprotect.listeners.ChatListener;
+import com.mistasoup.chatprotect.listeners.PaperChatListener;
+import com.mistasoup.chatprotect.listeners.PlayerConnectionListener;
 import com.mistasoup.chatprotect.managers.ConfigManager;
+import com.mistasoup.chatprotect.managers.ExpiryManager;
+import com.mistasoup.chatprotect.managers.MetricsManager;
+import com.mistasoup.chatprotect.managers.ModerationExecutor;
 import com.mistasoup.chatprotect.managers.MuteManager;
 import com.mistasoup.chatprotect.managers.PlayerDataManager;
+import com.mistasoup.chatprotect.managers.PlayerNameIndex;
+import com.mistasoup.chatprotect.managers.RaidManager;
+import com.mistasoup.chatprotect.managers.SyncManager;
+import com.mistasoup.chatprotect.utils.DebugLog;
+import com.mistasoup.chatprotect.utils.MessageUtils;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.util.logging.Level;
 
 public class ChatProtect extends JavaPlugin {
     
     private static ChatProtect instance;
+    private DebugLog debugLog;
     private ConfigManager configManager;
+    private ExpiryManager expiryManager;
     private PlayerDataManager playerDataManager;
+    private PlayerNameIndex playerNameIndex;
+    private SyncManager syncManager;
     private MuteManager muteManager;
+    private RaidManager raidManager;
+    private FilterPipeline filterPipeline;
+    private MetricsManager metricsManager;
+    private ModerationExecutor moderationExecutor;
+    
+    public ChatProtect() {
+    }
+    
+    /**
+     * Load the plugin outside a server (used by the load simulator)
+     */
+    ChatProtect(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
     
     @Override
     public void onEnable() {
         instance = this;
         
-        // Initialize managers
-        this.configManager = new ConfigManager(this);
-        this.playerDataManager = new PlayerDataManager(this);
-        this.muteManager = new MuteManager(this);
+        startServices();
         
         // Register listeners
-        getServer().getPluginManager().registerEvents(new ChatListener(this), this);
+        if (configManager.getSnapshot().isPaperChatMode()) {
+            getServer().getPluginManager().registerEvents(new PaperChatListener(this), this);
+        } else {
+            getServer().getPluginManager().registerEvents(new ChatListener(this), this);
+        }
         getServer().getPluginManager().registerEvents(new com.mistasoup.chatprotect.listeners.PrivateMessageListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerConnectionListener(this), this);
         
         // Register commands
         getCommand("chatprotect").setExecutor(new ChatProtectCommand(this));
         
-        // Start cleanup task (runs every 5 minutes)
-        getServer().getGlobalRegionScheduler().runAtFixedRate(this, task -> {
-            muteManager.cleanup();
-        }, 20L * 60 * 5, 20L * 60 * 5); // 5 minutes
-        
         getLogger().info("ChatProtect has been enabled!");
         getLogger().info("Folia-compatible anti-spam protection active.");
     }
     
+    /**
+     * Managers, the filter pipeline and their timers - everything except
+     * the listener and command registration
+     */
+    void startServices() {
+        // Debug/verbose output is written by a background thread
+        this.debugLog = new DebugLog(getLogger());
+        debugLog.start();
+        
+        // Character folding table used by every check
+        MessageUtils.loadTables();
+        getLogger().info(MessageUtils.describeKernels());
+        
+        // Initialize managers
+        this.configManager = new ConfigManager(this);
+        this.expiryManager = new ExpiryManager(this);
+        this.playerDataManager = new PlayerDataManager(this);
+        this.playerNameIndex = new PlayerNameIndex(this);
+        this.syncManager = new SyncManager(this);
+        this.muteManager = new MuteManager(this);
+        this.raidManager = new RaidManager(this);
+        
+        // Checks shared by public chat and private messages
+        this.filterPipeline = FilterPipeline.createDefault(this);
+        this.metricsManager = new MetricsManager(this);
+        this.moderationExecutor = new ModerationExecutor(this);
+        
+        // Expire mutes, cooldowns, kick windows and departed players on time
+        expiryManager.start();
+        metricsManager.start();
+        
+        // Chat checks run on their own threads, in order per player (moderation.*)
+        moderationExecutor.start();
+        
+        // Share mutes and spam kicks with the other servers (sync.*)
+        syncManager.start();
+    }
+    
     @Override
     public void onDisable() {
+        // Each step runs even if an earlier one failed, pending mutes must still be written
+        
+        // Finish checking queued chat messages (may still mute, so before sync and storage)
+        if (moderationExecutor != null) {
+            shutdownStep("chat moderation", moderationExecutor::shutdown);
+        }
+        
+        // Send the last changes to the other servers and stop listening
+        if (syncManager != null) {
+            shutdownStep("mute sync", syncManager::shutdown);
+        }
+        
+        // Write pending mute changes before shutting down
+        if (muteManager != null) {
+            shutdownStep("mute storage", muteManager::shutdown);
+        }
+        
         // Clear player data on shutdown
         if (playerDataManager != null) {
-            playerDataManager.clearAll();
+            shutdownStep("player data", playerDataManager::clearAll);
+        }
+        
+        if (metricsManager != null) {
+            shutdownStep("metrics", metricsManager::shutdown);
+        }
+        
+        if (expiryManager != null) {
+            shutdownStep("expiry timer", expiryManager::shutdown);
+        }
+        
+        if (debugLog != null) {
+            shutdownStep("debug log", debugLog::shutdown);
         }
         
         getLogger().info("ChatProtect has been disabled!");
     }
     
+    private void shutdownStep(String name, Runnable step) {
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            getLogger().log(Level.SEVERE, "Failed to shut down " + name, e);
+        }
+    }
+    
     public static ChatProtect getInstance() {
         return instance;
     }
     
+    public DebugLog getDebugLog() {
+        return debugLog;
+    }
+    
     public ConfigManager getConfigManager() {
         return configManager;
     }
     
+    public ExpiryManager getExpiryManager() {
+        return expiryManager;
+    }
+    
     public PlayerDataManager getPlayerDataManager() {
         return playerDataManager;
     }
     
+    public PlayerNameIndex getPlayerNameIndex() {
+        return playerNameIndex;
+    }
+    
+    public SyncManager getSyncManager() {
+        return syncManager;
+    }
+    
     public MuteManager getMuteManager() {
         return muteManager;
     }
     
+    public RaidManager getRaidManager() {
+        return raidManager;
+    }
+    
+    public FilterPipeline getFilterPipeline() {
+        return filterPipeline;
+    }
+    
+    public MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+    
+    public ModerationExecutor getModerationExecutor() {
+        return moderationExecutor;
+    }
+    
     public void reload() {
         configManager.reload();
+        metricsManager.start();
         playerDataManager.clearAll();
         muteManager.clearAll();
+        raidManager.clear();
     }
 }
\ No newline at end of file
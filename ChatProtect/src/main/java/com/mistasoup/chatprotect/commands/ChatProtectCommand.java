@@ -27,8 +27,13 @@ public class ChatProtectCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
+        if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+            showStats(sender, args);
+            return true;
+        }
+        
         if (args.length == 0 || !args[0].equalsIgnoreCase("reload")) {
-            sender.sendMessage("§eUsage: /" + label + " reload");
+            sender.sendMessage("§eUsage: /" + label + " <reload|stats [reset]>");
             return true;
         }
         
@@ -42,12 +47,32 @@ public class ChatProtectCommand implements CommandExecutor, TabCompleter {
         return true;
     }
     
+    private void showStats(CommandSender sender, String[] args) {
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            plugin.getMetricsManager().reset();
+            sender.sendMessage("§aChatProtect stats reset.");
+            return;
+        }
+        
+        sender.sendMessage("§6ChatProtect stats:");
+        for (String line : plugin.getMetricsManager().getReport()) {
+            sender.sendMessage("§7" + line);
+        }
+    }
+    
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> completions = new ArrayList<>();
         
-        if (args.length == 1 && sender.hasPermission("chatprotect.admin")) {
+        if (!sender.hasPermission("chatprotect.admin")) {
+            return completions;
+        }
+        
+        if (args.length == 1) {
             completions.add("reload");
+            completions.add("stats");
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+            completions.add("reset");
         }
         
         return completions;
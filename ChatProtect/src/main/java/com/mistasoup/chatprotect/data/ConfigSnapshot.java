@@ -0,0 +1,416 @@
+package com.mistasoup.chatprotect.data;
+
+import com.mistasoup.chatprotect.utils.BlockedWordMatcher;
+import com.mistasoup.chatprotect.utils.CommandLookup;
+import com.mistasoup.chatprotect.utils.RecentMessageIndex;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable, fully parsed copy of config.yml.
+ * Built once per load/reload so the chat path only reads final fields
+ * (colors already translated, lists already copied, word list already compiled).
+ */
+public class ConfigSnapshot {
+    
+    // Settings
+    private final int messageHistorySize;
+    private final double similarityThreshold;
+    private final boolean debugEnabled;
+    private final boolean verboseEnabled;
+    private final boolean paperChatMode;
+    
+    // Duplicate Messages
+    private final int maxRepeats;
+    private final int cooldownSeconds;
+    
+    // Blocked Words
+    private final boolean blockedWordsEnabled;
+    private final List<String> blockedWords;
+    private final BlockedWordMatcher blockedWordMatcher;
+    
+    // Anti-Spam Kick
+    private final boolean antiSpamKickEnabled;
+    private final int kickMessageThreshold;
+    private final int kickTimeWindow;
+    private final String kickMessage;
+    
+    // Auto-Mute
+    private final boolean autoMuteEnabled;
+    private final int autoMuteKickThreshold;
+    private final int autoMuteKickWindow;
+    private final int autoMuteDuration;
+    private final String muteMessage;
+    private final String unmuteMessage;
+    private final boolean mutedPlayersReceivePM;
+    
+    // Messages
+    private final String reloadSuccessMessage;
+    private final String noPermissionMessage;
+    
+    // Private Messaging
+    private final boolean privateMessagingEnabled;
+    private final String privateMessageColor;
+    private final List<String> privateMessageCommands;
+    private final CommandLookup privateMessageCommandLookup;
+    private final String privateMessageSentFormat;
+    private final String privateMessageReceivedFormat;
+    
+    // Chat Colors
+    private final boolean chatColorsEnabled;
+    private final String colorPrefix;
+    private final String prefixColor;
+    
+    // Memory
+    private final int quitGraceSeconds;
+    private final int entryIdleSeconds;
+    private final int maxEntriesPerPlayer;
+    
+    // Raid Detection
+    private final boolean raidDetectionEnabled;
+    private final int raidMinAccounts;
+    private final int raidWindowSeconds;
+    private final int raidMinLength;
+    private final int raidMaxDistance;
+    private final int raidMuteSeconds;
+    
+    // Moderation
+    private final int moderationThreads;
+    private final boolean moderationVirtualThreads;
+    private final int moderationMaxQueued;
+    private final String moderationQueueFullMessage;
+    
+    // Metrics
+    private final int metricsDumpIntervalSeconds;
+    private final String metricsDumpFile;
+    
+    // Storage
+    private final String storageType;
+    private final String sqliteFile;
+    
+    // Sync
+    private final boolean syncEnabled;
+    private final String syncTransport;
+    private final String syncSecret;
+    private final int syncFlushIntervalMillis;
+    private final int syncUdpPort;
+    private final List<String> syncUdpPeers;
+    
+    public ConfigSnapshot(FileConfiguration config) {
+        this.messageHistorySize = config.getInt("settings.message-history-size", 10);
+        this.similarityThreshold = config.getDouble("settings.similarity-threshold", 75.0);
+        this.debugEnabled = config.getBoolean("settings.debug", false);
+        this.verboseEnabled = config.getBoolean("settings.verbose", false);
+        this.paperChatMode = "paper".equalsIgnoreCase(config.getString("settings.chat-mode", "legacy"));
+        
+        this.maxRepeats = config.getInt("duplicate-messages.max-repeats", 2);
+        this.cooldownSeconds = config.getInt("duplicate-messages.cooldown-seconds", 30);
+        
+        this.blockedWordsEnabled = config.getBoolean("blocked-words.enabled", true);
+        this.blockedWords = List.copyOf(config.getStringList("blocked-words.word-list"));
+        this.blockedWordMatcher = BlockedWordMatcher.compile(blockedWords);
+        
+        this.antiSpamKickEnabled = config.getBoolean("anti-spam-kick.enabled", true);
+        this.kickMessageThreshold = config.getInt("anti-spam-kick.message-threshold", 7);
+        this.kickTimeWindow = config.getInt("anti-spam-kick.time-window-seconds", 5);
+        this.kickMessage = color(config.getString("anti-spam-kick.kick-message", "&cYou have been kicked for spamming!"));
+        
+        this.autoMuteEnabled = config.getBoolean("auto-mute.enabled", true);
+        this.autoMuteKickThreshold = config.getInt("auto-mute.kick-threshold", 3);
+        this.autoMuteKickWindow = config.getInt("auto-mute.kick-window-minutes", 10);
+        this.autoMuteDuration = config.getInt("auto-mute.mute-duration-seconds", 300);
+        this.muteMessage = color(config.getString("auto-mute.mute-message", "&cYou are muted for spamming. Time remaining: &e{time} &cseconds."));
+        this.unmuteMessage = color(config.getString("auto-mute.unmute-message", "&aYou are no longer muted."));
+        this.mutedPlayersReceivePM = config.getBoolean("auto-mute.allow-receive-pm", true);
+        
+        this.reloadSuccessMessage = color(config.getString("messages.reload-success", ""));
+        this.noPermissionMessage = color(config.getString("messages.no-permission", ""));
+        
+        this.privateMessagingEnabled = config.getBoolean("private-messaging.enabled", true);
+        this.privateMessageColor = color(config.getString("private-messaging.message-color", "&d"));
+        this.privateMessageCommands = List.copyOf(config.getStringList("private-messaging.commands"));
+        this.privateMessageCommandLookup = CommandLookup.compile(privateMessageCommands, "chatprotect:");
+        this.privateMessageSentFormat = color(config.getString("private-messaging.sent-format", "&7[&dYou &7-> &d{receiver}&7] &r{message}"));
+        this.privateMessageReceivedFormat = color(config.getString("private-messaging.received-format", "&7[&d{sender} &7-> &dYou&7] &r{message}"));
+        
+        this.chatColorsEnabled = config.getBoolean("chat-colors.enabled", true);
+        this.colorPrefix = config.getString("chat-colors.color-prefix", ">");
+        this.prefixColor = color(config.getString("chat-colors.prefix-color", "&a"));
+        
+        this.quitGraceSeconds = config.getInt("memory.quit-grace-seconds", 60);
+        this.entryIdleSeconds = config.getInt("memory.entry-idle-seconds", 300);
+        this.maxEntriesPerPlayer = Math.max(1, config.getInt("memory.max-entries-per-player", 100));
+        
+        this.raidDetectionEnabled = config.getBoolean("raid-detection.enabled", false);
+        this.raidMinAccounts = Math.max(2, config.getInt("raid-detection.min-accounts", 5));
+        this.raidWindowSeconds = config.getInt("raid-detection.window-seconds", 10);
+        this.raidMinLength = config.getInt("raid-detection.min-length", 12);
+        this.raidMaxDistance = Math.max(0, Math.min(RecentMessageIndex.MAX_DISTANCE, config.getInt("raid-detection.max-distance", 6)));
+        this.raidMuteSeconds = config.getInt("raid-detection.mute-seconds", 600);
+        
+        this.moderationThreads = Math.max(0, config.getInt("moderation.threads", 0));
+        this.moderationVirtualThreads = config.getBoolean("moderation.virtual-threads", false);
+        this.moderationMaxQueued = Math.max(1, config.getInt("moderation.max-queued-per-player", 5));
+        this.moderationQueueFullMessage = color(config.getString("moderation.queue-full-message", "&cYou are sending messages too fast!"));
+        
+        this.metricsDumpIntervalSeconds = config.getInt("metrics.dump-interval-seconds", 0);
+        this.metricsDumpFile = config.getString("metrics.dump-file", "metrics.log");
+        
+        this.storageType = config.getString("storage.type", "journal").toLowerCase(Locale.ROOT);
+        this.sqliteFile = config.getString("storage.sqlite-file", "mutes.db");
+        
+        this.syncEnabled = config.getBoolean("sync.enabled", false);
+        this.syncTransport = config.getString("sync.transport", "plugin-message").toLowerCase(Locale.ROOT);
+        this.syncSecret = config.getString("sync.secret", "");
+        this.syncFlushIntervalMillis = Math.max(50, config.getInt("sync.flush-interval-millis", 250));
+        this.syncUdpPort = config.getInt("sync.udp.port", 25590);
+        this.syncUdpPeers = List.copyOf(config.getStringList("sync.udp.peers"));
+    }
+    
+    private static String color(String message) {
+        if (message == null || message.isEmpty()) {
+            return "";
+        }
+        return ChatColor.translateAlternateColorCodes('&', message);
+    }
+    
+    // Settings
+    public int getMessageHistorySize() {
+        return messageHistorySize;
+    }
+    
+    public double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+    
+    public boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+    
+    public boolean isVerboseEnabled() {
+        return verboseEnabled;
+    }
+    
+    public boolean isPaperChatMode() {
+        return paperChatMode;
+    }
+    
+    // Duplicate Messages
+    public int getMaxRepeats() {
+        return maxRepeats;
+    }
+    
+    public int getCooldownSeconds() {
+        return cooldownSeconds;
+    }
+    
+    // Blocked Words
+    public boolean isBlockedWordsEnabled() {
+        return blockedWordsEnabled;
+    }
+    
+    public List<String> getBlockedWords() {
+        return blockedWords;
+    }
+    
+    public BlockedWordMatcher getBlockedWordMatcher() {
+        return blockedWordMatcher;
+    }
+    
+    // Anti-Spam Kick
+    public boolean isAntiSpamKickEnabled() {
+        return antiSpamKickEnabled;
+    }
+    
+    public int getKickMessageThreshold() {
+        return kickMessageThreshold;
+    }
+    
+    public int getKickTimeWindow() {
+        return kickTimeWindow;
+    }
+    
+    public String getKickMessage() {
+        return kickMessage;
+    }
+    
+    // Auto-Mute
+    public boolean isAutoMuteEnabled() {
+        return autoMuteEnabled;
+    }
+    
+    public int getAutoMuteKickThreshold() {
+        return autoMuteKickThreshold;
+    }
+    
+    public int getAutoMuteKickWindow() {
+        return autoMuteKickWindow;
+    }
+    
+    public int getAutoMuteDuration() {
+        return autoMuteDuration;
+    }
+    
+    public String getMuteMessage() {
+        return muteMessage;
+    }
+    
+    public String getUnmuteMessage() {
+        return unmuteMessage;
+    }
+    
+    public boolean canMutedPlayersReceivePM() {
+        return mutedPlayersReceivePM;
+    }
+    
+    // Messages
+    public String getReloadSuccessMessage() {
+        return reloadSuccessMessage;
+    }
+    
+    public String getNoPermissionMessage() {
+        return noPermissionMessage;
+    }
+    
+    // Private Messaging
+    public boolean isPrivateMessagingEnabled() {
+        return privateMessagingEnabled;
+    }
+    
+    public String getPrivateMessageColor() {
+        return privateMessageColor;
+    }
+    
+    public List<String> getPrivateMessageCommands() {
+        return privateMessageCommands;
+    }
+    
+    /**
+     * PM commands (and their /chatprotect: forms) compiled for matching command lines
+     */
+    public CommandLookup getPrivateMessageCommandLookup() {
+        return privateMessageCommandLookup;
+    }
+    
+    public String getPrivateMessageSentFormat() {
+        return privateMessageSentFormat;
+    }
+    
+    public String getPrivateMessageReceivedFormat() {
+        return privateMessageReceivedFormat;
+    }
+    
+    // Chat Colors
+    public boolean isChatColorsEnabled() {
+        return chatColorsEnabled;
+    }
+    
+    public String getColorPrefix() {
+        return colorPrefix;
+    }
+    
+    public String getPrefixColor() {
+        return prefixColor;
+    }
+    
+    // Memory
+    public int getQuitGraceSeconds() {
+        return quitGraceSeconds;
+    }
+    
+    public int getEntryIdleSeconds() {
+        return entryIdleSeconds;
+    }
+    
+    public int getMaxEntriesPerPlayer() {
+        return maxEntriesPerPlayer;
+    }
+    
+    // Raid Detection
+    public boolean isRaidDetectionEnabled() {
+        return raidDetectionEnabled;
+    }
+    
+    public int getRaidMinAccounts() {
+        return raidMinAccounts;
+    }
+    
+    public int getRaidWindowSeconds() {
+        return raidWindowSeconds;
+    }
+    
+    public int getRaidMinLength() {
+        return raidMinLength;
+    }
+    
+    public int getRaidMaxDistance() {
+        return raidMaxDistance;
+    }
+    
+    public int getRaidMuteSeconds() {
+        return raidMuteSeconds;
+    }
+    
+    // Moderation
+    public int getModerationThreads() {
+        return moderationThreads;
+    }
+    
+    public boolean isModerationVirtualThreads() {
+        return moderationVirtualThreads;
+    }
+    
+    public int getModerationMaxQueued() {
+        return moderationMaxQueued;
+    }
+    
+    public String getModerationQueueFullMessage() {
+        return moderationQueueFullMessage;
+    }
+    
+    // Metrics
+    public int getMetricsDumpIntervalSeconds() {
+        return metricsDumpIntervalSeconds;
+    }
+    
+    public String getMetricsDumpFile() {
+        return metricsDumpFile;
+    }
+    
+    // Storage
+    public String getStorageType() {
+        return storageType;
+    }
+    
+    public String getSqliteFile() {
+        return sqliteFile;
+    }
+    
+    // Sync
+    public boolean isSyncEnabled() {
+        return syncEnabled;
+    }
+    
+    public String getSyncTransport() {
+        return syncTransport;
+    }
+    
+    public String getSyncSecret() {
+        return syncSecret;
+    }
+    
+    public int getSyncFlushIntervalMillis() {
+        return syncFlushIntervalMillis;
+    }
+    
+    public int getSyncUdpPort() {
+        return syncUdpPort;
+    }
+    
+    public List<String> getSyncUdpPeers() {
+        return syncUdpPeers;
+    }
+}
\ No newline at end of file
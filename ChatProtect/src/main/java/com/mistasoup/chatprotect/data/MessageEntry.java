@@ -0,0 +1,57 @@
+package com.mistasoup.chatprotect.data;
+
+import com.mistasoup.chatprotect.utils.MessageUtils;
+
+/**
+ * A message together with its precomputed normalized form, so history checks
+ * never have to normalize the same text twice
+ */
+public class MessageEntry {
+    
+    private final String message; // Raw message as sent
+    private final String normalized; // MessageUtils.normalizeMessage(message)
+    private final int trimmedLength; // Length of the raw message without surrounding whitespace
+    private final int normalizedHash;
+    
+    public MessageEntry(String message) {
+        this(message, MessageUtils.normalizeMessage(message));
+    }
+    
+    public MessageEntry(String message, String normalized) {
+        this.message = message;
+        this.normalized = normalized;
+        this.trimmedLength = message.trim().length();
+        this.normalizedHash = normalized.hashCode();
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public String getNormalized() {
+        return normalized;
+    }
+    
+    public int getTrimmedLength() {
+        return trimmedLength;
+    }
+    
+    public int getNormalizedLength() {
+        return normalized.length();
+    }
+    
+    public int getNormalizedHash() {
+        return normalizedHash;
+    }
+    
+    /**
+     * Check if this entry is at least threshold percent similar to another one
+     */
+    public boolean isSimilarTo(MessageEntry other, double threshold) {
+        // Identical normalized text is always 100% similar
+        if (normalizedHash == other.normalizedHash && !normalized.isEmpty() && normalized.equals(other.normalized)) {
+            return 100.0 >= threshold;
+        }
+        return MessageUtils.isSimilar(normalized, other.normalized, threshold);
+    }
+}
\ No newline at end of file
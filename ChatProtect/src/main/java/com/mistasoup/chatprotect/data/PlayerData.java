@@ -1,84 +1,189 @@
 package com.mistasoup.chatprotect.data;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import com.mistasoup.chatprotect.utils.RateLimiter;
+import com.mistasoup.chatprotect.utils.TimerWheel;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Per-player anti-spam state.
+ * All methods lock on this instance, so a whole check sequence can be made atomic
+ * per player with synchronized (playerData) { ... } while different players never
+ * share a lock.
+ *
+ * Cooldowns and repeat counts each carry a timer on the shared TimerWheel, so they are
+ * dropped the moment they expire instead of waiting for the next read.
+ */
 public class PlayerData {
     
-    private final List<String> messageHistory;
-    private final Map<String, Long> messageCooldowns;
-    private final Map<String, Integer> messageRepeatCount;
-    private final List<Long> messageTimestamps;
+    private final ArrayDeque<MessageEntry> messageHistory;
+    private final Collection<MessageEntry> messageHistoryView;
+    private final Map<String, Cooldown> messageCooldowns;
+    private final Map<String, RepeatCount> messageRepeatCount;
+    private RateLimiter messageRate; // Created on first message, sized from the kick threshold
     private final int maxHistorySize;
+    private final TimerWheel timers; // Null: entries only expire when they are read
+    private final long idleMillis;
     
     public PlayerData(int maxHistorySize) {
+        this(maxHistorySize, 100, null, 0L);
+    }
+    
+    /**
+     * @param maxEntries hard cap for tracked cooldowns and repeat counts, the oldest entry is dropped first
+     * @param timers wheel that expires cooldowns, and repeat counts after idleMillis without change
+     */
+    public PlayerData(int maxHistorySize, int maxEntries, TimerWheel timers, long idleMillis) {
         this.maxHistorySize = maxHistorySize;
-        this.messageHistory = new ArrayList<>();
-        this.messageCooldowns = new HashMap<>();
-        this.messageRepeatCount = new HashMap<>();
-        this.messageTimestamps = new ArrayList<>();
+        this.timers = timers;
+        this.idleMillis = idleMillis;
+        this.messageHistory = new ArrayDeque<>(maxHistorySize + 1);
+        this.messageHistoryView = Collections.unmodifiableCollection(messageHistory);
+        this.messageCooldowns = boundedMap(maxEntries);
+        this.messageRepeatCount = boundedMap(maxEntries);
+    }
+    
+    private static <V extends TimedEntry> Map<String, V> boundedMap(int maxEntries) {
+        return new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                if (size() > maxEntries) {
+                    eldest.getValue().cancelTimer();
+                    return true;
+                }
+                return false;
+            }
+        };
     }
     
     public void addMessage(String message) {
-        messageHistory.add(message);
+        addMessage(new MessageEntry(message));
+    }
+    
+    public synchronized void addMessage(MessageEntry entry) {
+        messageHistory.addLast(entry);
         if (messageHistory.size() > maxHistorySize) {
-            messageHistory.remove(0);
+            messageHistory.removeFirst();
         }
     }
     
-    public List<String> getMessageHistory() {
-        return new ArrayList<>(messageHistory);
+    /**
+     * Recent messages, oldest first (read-only view, not a copy)
+     * Only iterate while holding the lock on this PlayerData
+     */
+    public Collection<MessageEntry> getMessageHistory() {
+        return messageHistoryView;
     }
     
-    public void setCooldown(String normalizedMessage, long expiryTime) {
-        messageCooldowns.put(normalizedMessage, expiryTime);
+    public synchronized void setCooldown(String normalizedMessage, long expiryTime) {
+        Cooldown cooldown = new Cooldown(expiryTime);
+        Cooldown previous = messageCooldowns.put(normalizedMessage, cooldown);
+        if (previous != null) {
+            previous.cancelTimer();
+        }
+        
+        if (timers != null) {
+            cooldown.timer = timers.schedule(expiryTime, task -> expire(messageCooldowns, normalizedMessage, cooldown));
+        }
     }
     
-    public boolean isOnCooldown(String normalizedMessage) {
-        Long expiryTime = messageCooldowns.get(normalizedMessage);
-        if (expiryTime == null) {
+    public synchronized boolean isOnCooldown(String normalizedMessage) {
+        Cooldown cooldown = messageCooldowns.get(normalizedMessage);
+        if (cooldown == null) {
             return false;
         }
         
-        if (System.currentTimeMillis() >= expiryTime) {
+        // The timer may be up to a tick behind
+        if (System.currentTimeMillis() >= cooldown.expiryTime) {
             messageCooldowns.remove(normalizedMessage);
+            cooldown.cancelTimer();
             return false;
         }
         
         return true;
     }
     
-    public void incrementRepeatCount(String normalizedMessage) {
-        messageRepeatCount.put(normalizedMessage, 
-            messageRepeatCount.getOrDefault(normalizedMessage, 0) + 1);
+    public synchronized void incrementRepeatCount(String normalizedMessage) {
+        RepeatCount repeatCount = messageRepeatCount.computeIfAbsent(normalizedMessage, k -> new RepeatCount());
+        repeatCount.count++;
+        
+        // Restart the idle timer
+        if (timers != null) {
+            repeatCount.cancelTimer();
+            repeatCount.timer = timers.schedule(System.currentTimeMillis() + idleMillis,
+                task -> expire(messageRepeatCount, normalizedMessage, repeatCount));
+        }
     }
     
-    public void resetRepeatCount(String normalizedMessage) {
-        messageRepeatCount.remove(normalizedMessage);
+    public synchronized void resetRepeatCount(String normalizedMessage) {
+        RepeatCount repeatCount = messageRepeatCount.remove(normalizedMessage);
+        if (repeatCount != null) {
+            repeatCount.cancelTimer();
+        }
     }
     
-    public int getRepeatCount(String normalizedMessage) {
-        return messageRepeatCount.getOrDefault(normalizedMessage, 0);
+    public synchronized int getRepeatCount(String normalizedMessage) {
+        RepeatCount repeatCount = messageRepeatCount.get(normalizedMessage);
+        return repeatCount == null ? 0 : repeatCount.count;
     }
     
-    public void addTimestamp(long timestamp) {
-        messageTimestamps.add(timestamp);
+    /**
+     * Timer callback, only removes the entry if it was not replaced in the meantime
+     */
+    private synchronized <V extends TimedEntry> void expire(Map<String, V> entries, String key, V entry) {
+        entries.remove(key, entry);
     }
     
-    public void cleanOldTimestamps(long cutoffTime) {
-        messageTimestamps.removeIf(timestamp -> timestamp < cutoffTime);
+    /**
+     * Record a sent message for the anti-spam kick rate limit
+     * Returns true if more than threshold messages were sent within the window
+     */
+    public synchronized boolean recordMessage(long timestamp, int threshold, long windowMillis) {
+        if (messageRate == null || messageRate.getLimit() != threshold) {
+            messageRate = new RateLimiter(threshold);
+        }
+        return messageRate.record(timestamp, windowMillis);
     }
     
-    public int getRecentMessageCount() {
-        return messageTimestamps.size();
+    public synchronized int getRecentMessageCount() {
+        return messageRate == null ? 0 : messageRate.size();
     }
     
-    public void clear() {
+    public synchronized void clear() {
         messageHistory.clear();
+        messageCooldowns.values().forEach(TimedEntry::cancelTimer);
         messageCooldowns.clear();
+        messageRepeatCount.values().forEach(TimedEntry::cancelTimer);
         messageRepeatCount.clear();
-        messageTimestamps.clear();
+        if (messageRate != null) {
+            messageRate.clear();
+        }
+    }
+    
+    private abstract static class TimedEntry {
+        TimerWheel.Timeout timer;
+        
+        void cancelTimer() {
+            if (timer != null) {
+                timer.cancel();
+                timer = null;
+            }
+        }
+    }
+    
+    private static final class Cooldown extends TimedEntry {
+        private final long expiryTime;
+        
+        private Cooldown(long expiryTime) {
+            this.expiryTime = expiryTime;
+        }
+    }
+    
+    private static final class RepeatCount extends TimedEntry {
+        private int count;
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.mistasoup.chatprotect.filters;
+
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+
+/**
+ * Blocks messages containing a word from the blocked word list.
+ * Runs under the player lock after the spam check, so blocked messages
+ * still count towards the spam kick.
+ */
+public class BlockedWordFilter implements ChatFilter {
+    
+    @Override
+    public String getName() {
+        return "blocked word";
+    }
+    
+    @Override
+    public FilterResult check(MessageContext context) {
+        ConfigSnapshot config = context.getConfig();
+        if (!config.isBlockedWordsEnabled()) {
+            return FilterResult.PASS;
+        }
+        
+        String blockedWord = config.getBlockedWordMatcher().findMatch(context.getMessage(), context.getEntry().getNormalized());
+        if (blockedWord == null) {
+            return FilterResult.PASS;
+        }
+        
+        context.setReason("blocked word '" + blockedWord + "'");
+        return FilterResult.BLOCK;
+    }
+}
\ No newline at end of file
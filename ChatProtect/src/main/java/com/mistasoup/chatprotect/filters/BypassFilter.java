@@ -0,0 +1,22 @@
+package com.mistasoup.chatprotect.filters;
+
+/**
+ * Players with chatprotect.bypass skip every other check
+ */
+public class BypassFilter implements ChatFilter {
+    
+    @Override
+    public String getName() {
+        return "bypass";
+    }
+    
+    @Override
+    public boolean needsPlayerLock() {
+        return false;
+    }
+    
+    @Override
+    public FilterResult check(MessageContext context) {
+        return context.getSender().hasPermission("chatprotect.bypass") ? FilterResult.ALLOW : FilterResult.PASS;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.mistasoup.chatprotect.filters;
+
+/**
+ * One check in the FilterPipeline.
+ * Stages run in order, cheapest first, and the first non-PASS result wins.
+ */
+public interface ChatFilter {
+    
+    /**
+     * Short name, used for timings and as the default block reason
+     */
+    String getName();
+    
+    /**
+     * True if this stage has to run while holding the sender's PlayerData lock
+     * (it reads or changes player state). Locked stages have to come after every
+     * stage that does not need the lock.
+     */
+    default boolean needsPlayerLock() {
+        return true;
+    }
+    
+    FilterResult check(MessageContext context);
+}
\ No newline at end of file
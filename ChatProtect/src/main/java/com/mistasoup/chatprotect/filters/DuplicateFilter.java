@@ -0,0 +1,89 @@
+package com.mistasoup.chatprotect.filters;
+
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.data.MessageEntry;
+import com.mistasoup.chatprotect.data.PlayerData;
+import com.mistasoup.chatprotect.utils.DebugLog;
+
+import java.util.function.Supplier;
+
+/**
+ * Blocks players repeating (nearly) the same message: every similar message
+ * counts as a repeat, and after max-repeats the text goes on cooldown
+ */
+public class DuplicateFilter implements ChatFilter {
+    
+    private final DebugLog debugLog;
+    
+    public DuplicateFilter(DebugLog debugLog) {
+        this.debugLog = debugLog;
+    }
+    
+    @Override
+    public String getName() {
+        return "duplicate";
+    }
+    
+    @Override
+    public FilterResult check(MessageContext context) {
+        return isDuplicateMessage(context.getEntry(), context.getPlayerData(), context.getConfig())
+            ? FilterResult.BLOCK
+            : FilterResult.PASS;
+    }
+    
+    private boolean isDuplicateMessage(MessageEntry entry, PlayerData playerData, ConfigSnapshot config) {
+        // Allow very short messages (1-2 chars) to avoid false positives
+        if (entry.getTrimmedLength() <= 2) {
+            logVerbose(() -> "Short message (≤2 chars) - skipping duplicate check");
+            return false;
+        }
+        
+        String normalized = entry.getNormalized();
+        
+        // If normalized message is too short or empty, allow it
+        if (normalized.length() <= 1) {
+            logVerbose(() -> "Normalized message too short - skipping duplicate check");
+            return false;
+        }
+        
+        double threshold = config.getSimilarityThreshold();
+        
+        logVerbose(() -> "Checking duplicates for: '" + normalized + "'");
+        
+        if (playerData.isOnCooldown(normalized)) {
+            logVerbose(() -> "Message on cooldown");
+            return true;
+        }
+        
+        for (MessageEntry past : playerData.getMessageHistory()) {
+            // Skip comparing with very short past messages
+            if (past.getTrimmedLength() <= 2) {
+                continue;
+            }
+            
+            if (entry.isSimilarTo(past, threshold)) {
+                logVerbose(() -> "Similar (>= " + threshold + "%) to '" + past.getMessage() + "'");
+                playerData.incrementRepeatCount(normalized);
+                int repeatCount = playerData.getRepeatCount(normalized);
+                
+                logVerbose(() -> "Repeat count: " + repeatCount + "/" + config.getMaxRepeats());
+                
+                if (repeatCount >= config.getMaxRepeats()) {
+                    long cooldownExpiry = System.currentTimeMillis() + (config.getCooldownSeconds() * 1000L);
+                    playerData.setCooldown(normalized, cooldownExpiry);
+                    playerData.resetRepeatCount(normalized);
+                    return true;
+                }
+                
+                return false;
+            }
+        }
+        
+        playerData.resetRepeatCount(normalized);
+        return false;
+    }
+    
+    private void logVerbose(Supplier<String> message) {
+        debugLog.verbose(message);
+    }
+}
\ No newline at end of file
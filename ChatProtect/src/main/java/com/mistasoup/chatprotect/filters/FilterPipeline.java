@@ -0,0 +1,209 @@
+package com.mistasoup.chatprotect.filters;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.PlayerData;
+import com.mistasoup.chatprotect.utils.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ordered chain of ChatFilter stages shared by public chat and private messages.
+ *
+ * Stages run until one returns ALLOW or BLOCK. Stages that touch PlayerData run
+ * together under that player's lock, and if they all pass the message is added to
+ * the history before the lock is released, so a player's checks stay atomic while
+ * other players never wait. Every stage's call count, blocks and latency are tracked,
+ * as well as the latency and verdicts of the pipeline as a whole.
+ */
+public class FilterPipeline {
+    
+    private final ChatProtect plugin;
+    private final ChatFilter[] filters;
+    private final StageStats[] stats;
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final int firstLockedStage; // Index of the first stage that needs the PlayerData lock
+    
+    public FilterPipeline(ChatProtect plugin, List<ChatFilter> filters) {
+        this.plugin = plugin;
+        this.filters = filters.toArray(new ChatFilter[0]);
+        this.stats = new StageStats[this.filters.length];
+        
+        int firstLocked = this.filters.length;
+        for (int i = 0; i < this.filters.length; i++) {
+            stats[i] = new StageStats(this.filters[i].getName());
+            
+            if (this.filters[i].needsPlayerLock()) {
+                firstLocked = Math.min(firstLocked, i);
+            } else if (firstLocked < i) {
+                throw new IllegalArgumentException("Filter '" + this.filters[i].getName()
+                    + "' does not need the player lock and must come before '" + this.filters[firstLocked].getName() + "'");
+            }
+        }
+        this.firstLockedStage = firstLocked;
+    }
+    
+    /**
+     * The standard chain, cheapest checks first
+     */
+    public static FilterPipeline createDefault(ChatProtect plugin) {
+        List<ChatFilter> filters = new ArrayList<>();
+        filters.add(new BypassFilter());
+        filters.add(new MuteFilter(plugin));
+        filters.add(new RaidFilter(plugin));
+        filters.add(new SpamKickFilter(plugin));
+        filters.add(new BlockedWordFilter());
+        filters.add(new DuplicateFilter(plugin.getDebugLog()));
+        return new FilterPipeline(plugin, filters);
+    }
+    
+    /**
+     * Run every stage on the message. PASS never comes back: a message that
+     * got through every stage is ALLOW with getDecidedBy() == null.
+     */
+    public FilterResult run(MessageContext context) {
+        long start = System.nanoTime();
+        long[] timings = plugin.getDebugLog().isVerboseEnabled() ? new long[filters.length] : null;
+        
+        FilterResult result = runStages(context, 0, firstLockedStage, timings);
+        if (result == FilterResult.PASS && firstLockedStage < filters.length) {
+            PlayerData playerData = context.getPlayerData();
+            
+            synchronized (playerData) {
+                result = runStages(context, firstLockedStage, filters.length, timings);
+                if (result == FilterResult.PASS) {
+                    // Message passed all checks, remember it for the duplicate check
+                    playerData.addMessage(context.getEntry());
+                }
+            }
+        }
+        
+        totalLatency.record(System.nanoTime() - start);
+        if (result == FilterResult.BLOCK) {
+            blocked.increment();
+        } else {
+            allowed.increment();
+        }
+        
+        if (timings != null) {
+            logTimings(timings);
+        }
+        return result == FilterResult.PASS ? FilterResult.ALLOW : result;
+    }
+    
+    private FilterResult runStages(MessageContext context, int from, int to, long[] timings) {
+        for (int i = from; i < to; i++) {
+            long start = System.nanoTime();
+            FilterResult result = filters[i].check(context);
+            long elapsed = System.nanoTime() - start;
+            
+            stats[i].record(elapsed, result == FilterResult.BLOCK);
+            if (timings != null) {
+                timings[i] = elapsed;
+            }
+            
+            if (result != FilterResult.PASS) {
+                context.setDecidedBy(filters[i].getName());
+                return result;
+            }
+        }
+        return FilterResult.PASS;
+    }
+    
+    private void logTimings(long[] timings) {
+        plugin.getDebugLog().verbose(() -> {
+            StringBuilder line = new StringBuilder("Filter timings:");
+            for (int i = 0; i < filters.length; i++) {
+                line.append(' ').append(filters[i].getName()).append('=').append(timings[i] / 1000L).append("us");
+            }
+            return line.toString();
+        });
+    }
+    
+    /**
+     * Totals per stage since startup, in pipeline order
+     */
+    public List<StageStats> getStageStats() {
+        List<StageStats> list = new ArrayList<>(stats.length);
+        Collections.addAll(list, stats);
+        return list;
+    }
+    
+    /**
+     * Time for a whole run(), lock waits included
+     */
+    public LatencyHistogram getTotalLatency() {
+        return totalLatency;
+    }
+    
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+    
+    public long getBlockedCount() {
+        return blocked.sum();
+    }
+    
+    public void resetStats() {
+        for (StageStats stage : stats) {
+            stage.reset();
+        }
+        totalLatency.reset();
+        allowed.reset();
+        blocked.reset();
+    }
+    
+    public static final class StageStats {
+        
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder blocked = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        
+        private StageStats(String name) {
+            this.name = name;
+        }
+        
+        private void record(long nanos, boolean block) {
+            calls.increment();
+            latency.record(nanos);
+            if (block) {
+                blocked.increment();
+            }
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public long getCalls() {
+            return calls.sum();
+        }
+        
+        public long getBlocked() {
+            return blocked.sum();
+        }
+        
+        public long getTotalNanos() {
+            return latency.getTotalNanos();
+        }
+        
+        public long getAverageNanos() {
+            return latency.getMeanNanos();
+        }
+        
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+        
+        private void reset() {
+            calls.reset();
+            blocked.reset();
+            latency.reset();
+        }
+    }
+}
\ No newline at end of file
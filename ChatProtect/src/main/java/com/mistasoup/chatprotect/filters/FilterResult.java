@@ -0,0 +1,13 @@
+package com.mistasoup.chatprotect.filters;
+
+/**
+ * What a filter stage decided about a message
+ */
+public enum FilterResult {
+    /** No objection, run the next stage */
+    PASS,
+    /** Deliver the message without running the remaining stages */
+    ALLOW,
+    /** Drop the message */
+    BLOCK
+}
\ No newline at end of file
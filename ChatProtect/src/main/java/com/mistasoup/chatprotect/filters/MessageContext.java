@@ -0,0 +1,97 @@
+package com.mistasoup.chatprotect.filters;
+
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.data.MessageEntry;
+import com.mistasoup.chatprotect.data.PlayerData;
+import com.mistasoup.chatprotect.managers.PlayerDataManager;
+import org.bukkit.entity.Player;
+
+/**
+ * Everything the filter stages share about one message.
+ * The normalized text and the sender's PlayerData are only looked up
+ * once, the first time a stage asks for them.
+ */
+public class MessageContext {
+    
+    public enum Channel {
+        PUBLIC,
+        PRIVATE
+    }
+    
+    private final Player sender;
+    private final String message;
+    private final Channel channel;
+    private final ConfigSnapshot config;
+    private final PlayerDataManager playerDataManager;
+    
+    private MessageEntry entry;
+    private PlayerData playerData;
+    private String decidedBy; // Stage that blocked or allowed early, null if every stage passed
+    private String reason;
+    
+    public MessageContext(Player sender, String message, Channel channel, ConfigSnapshot config, PlayerDataManager playerDataManager) {
+        this.sender = sender;
+        this.message = message;
+        this.channel = channel;
+        this.config = config;
+        this.playerDataManager = playerDataManager;
+    }
+    
+    public Player getSender() {
+        return sender;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public Channel getChannel() {
+        return channel;
+    }
+    
+    public ConfigSnapshot getConfig() {
+        return config;
+    }
+    
+    /**
+     * The message with its normalized form, normalized on first use
+     */
+    public MessageEntry getEntry() {
+        if (entry == null) {
+            entry = new MessageEntry(message);
+        }
+        return entry;
+    }
+    
+    public PlayerData getPlayerData() {
+        if (playerData == null) {
+            playerData = playerDataManager.getPlayerData(sender.getUniqueId());
+        }
+        return playerData;
+    }
+    
+    /**
+     * Name of the stage that decided early (blocked or bypassed), or null
+     */
+    public String getDecidedBy() {
+        return decidedBy;
+    }
+    
+    /**
+     * Why the message was blocked, e.g. "blocked word 'x'" (defaults to the stage name)
+     */
+    public String getReason() {
+        return reason != null ? reason : decidedBy;
+    }
+    
+    /**
+     * Give a more specific reason than the stage name
+     */
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+    
+    void setDecidedBy(String decidedBy) {
+        this.decidedBy = decidedBy;
+    }
+}
\ No newline at end of file
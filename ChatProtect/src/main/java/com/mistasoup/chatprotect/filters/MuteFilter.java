@@ -0,0 +1,44 @@
+package com.mistasoup.chatprotect.filters;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.managers.MuteManager;
+
+import java.util.UUID;
+
+/**
+ * Muted players can't send anything, they are told how long is left
+ */
+public class MuteFilter implements ChatFilter {
+    
+    private final ChatProtect plugin;
+    
+    public MuteFilter(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    @Override
+    public String getName() {
+        return "muted";
+    }
+    
+    @Override
+    public boolean needsPlayerLock() {
+        return false;
+    }
+    
+    @Override
+    public FilterResult check(MessageContext context) {
+        MuteManager muteManager = plugin.getMuteManager();
+        UUID uuid = context.getSender().getUniqueId();
+        
+        if (!muteManager.isMuted(uuid)) {
+            return FilterResult.PASS;
+        }
+        
+        int secondsRemaining = muteManager.getMuteSecondsRemaining(uuid);
+        String muteMsg = context.getConfig().getMuteMessage()
+            .replace("{time}", String.valueOf(secondsRemaining));
+        context.getSender().sendMessage(muteMsg);
+        return FilterResult.BLOCK;
+    }
+}
\ No newline at end of file
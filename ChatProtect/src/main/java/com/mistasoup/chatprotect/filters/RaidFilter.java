@@ -0,0 +1,45 @@
+package com.mistasoup.chatprotect.filters;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+
+/**
+ * Blocks public messages that many accounts sent at nearly the same time (bot raids).
+ * Runs server-wide, so it needs no player lock.
+ */
+public class RaidFilter implements ChatFilter {
+    
+    private final ChatProtect plugin;
+    
+    public RaidFilter(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    @Override
+    public String getName() {
+        return "raid";
+    }
+    
+    @Override
+    public boolean needsPlayerLock() {
+        return false;
+    }
+    
+    @Override
+    public FilterResult check(MessageContext context) {
+        ConfigSnapshot config = context.getConfig();
+        // Private messages go to one player, they are never part of a raid
+        if (!config.isRaidDetectionEnabled() || context.getChannel() != MessageContext.Channel.PUBLIC) {
+            return FilterResult.PASS;
+        }
+        
+        int accounts = plugin.getRaidManager().checkMessage(context.getSender().getUniqueId(),
+            context.getEntry().getNormalized(), config);
+        if (accounts == 0) {
+            return FilterResult.PASS;
+        }
+        
+        context.setReason("raid (" + accounts + " accounts)");
+        return FilterResult.BLOCK;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.mistasoup.chatprotect.filters;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.data.PlayerData;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+/**
+ * Kicks players who send more than the threshold of messages (chat and PMs
+ * combined) within the time window, and counts the kick towards auto-mute
+ */
+public class SpamKickFilter implements ChatFilter {
+    
+    private final ChatProtect plugin;
+    
+    public SpamKickFilter(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    @Override
+    public String getName() {
+        return "spam kick";
+    }
+    
+    @Override
+    public FilterResult check(MessageContext context) {
+        ConfigSnapshot config = context.getConfig();
+        if (!config.isAntiSpamKickEnabled()) {
+            return FilterResult.PASS;
+        }
+        
+        PlayerData playerData = context.getPlayerData();
+        int threshold = config.getKickMessageThreshold();
+        boolean exceeded = playerData.recordMessage(
+            System.currentTimeMillis(), threshold, config.getKickTimeWindow() * 1000L);
+        
+        plugin.getDebugLog().verbose(() -> "Spam check: " + playerData.getRecentMessageCount() + "/" + threshold);
+        
+        if (!exceeded) {
+            return FilterResult.PASS;
+        }
+        
+        Player player = context.getSender();
+        
+        // Record the kick for auto-mute
+        plugin.getMuteManager().recordSpamKick(player.getUniqueId());
+        
+        // Kick player
+        player.getScheduler().run(plugin, task -> {
+            player.kick(Component.text(config.getKickMessage()));
+        }, null);
+        return FilterResult.BLOCK;
+    }
+}
\ No newline at end of file
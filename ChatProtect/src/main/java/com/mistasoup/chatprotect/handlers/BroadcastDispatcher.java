@@ -0,0 +1,144 @@
+package com.mistasoup.chatprotect.handlers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers a chat line to every recipient.
+ *
+ * sendMessage only queues a packet on the player's connection, so it is safe from
+ * any thread. Large broadcasts are split over a fixed number of lanes that drain in
+ * parallel on the async scheduler, so delivery time stays flat as the player count
+ * grows. A player always lands in the same lane and every lane delivers in order,
+ * so nobody sees two messages swap places.
+ */
+public class BroadcastDispatcher {
+    
+    private static final int MIN_PARALLEL_RECIPIENTS = 64; // Below this a thread hop costs more than it saves
+    private static final int LANE_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    
+    private final ChatProtect plugin;
+    private final Lane[] lanes;
+    
+    public BroadcastDispatcher(ChatProtect plugin) {
+        this.plugin = plugin;
+        this.lanes = new Lane[LANE_COUNT];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+    
+    public void broadcast(Component message, Collection<? extends Player> recipients) {
+        long start = System.nanoTime();
+        
+        // Small broadcasts go out right here, unless a lane still holds older messages
+        if (lanes.length == 1 || recipients.size() < MIN_PARALLEL_RECIPIENTS || !plugin.isEnabled()) {
+            if (allLanesIdle()) {
+                for (Player player : recipients) {
+                    player.sendMessage(message);
+                }
+                logSummary(recipients.size(), 0, start);
+                return;
+            }
+        }
+        
+        List<List<Player>> batches = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            batches.add(new ArrayList<>(recipients.size() / lanes.length + 1));
+        }
+        for (Player player : recipients) {
+            batches.get(Math.floorMod(player.getUniqueId().hashCode(), lanes.length)).add(player);
+        }
+        
+        int recipientCount = recipients.size();
+        int usedLanes = 0;
+        for (List<Player> batch : batches) {
+            if (!batch.isEmpty()) {
+                usedLanes++;
+            }
+        }
+        
+        AtomicInteger remaining = new AtomicInteger(usedLanes);
+        int laneCount = usedLanes;
+        for (int i = 0; i < lanes.length; i++) {
+            List<Player> batch = batches.get(i);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            lanes[i].submit(() -> {
+                for (Player player : batch) {
+                    player.sendMessage(message);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    logSummary(recipientCount, laneCount, start);
+                }
+            });
+        }
+    }
+    
+    private boolean allLanesIdle() {
+        for (Lane lane : lanes) {
+            if (!lane.isIdle()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void logSummary(int recipients, int laneCount, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        plugin.getMetricsManager().recordBroadcast(elapsed, recipients);
+        
+        long micros = elapsed / 1000L;
+        plugin.getDebugLog().verbose(() -> "Broadcast to " + recipients + " players"
+            + (laneCount > 0 ? " over " + laneCount + " lanes" : "") + " (" + micros + "us)");
+    }
+    
+    /**
+     * Serial queue drained by at most one async task at a time
+     */
+    private final class Lane {
+        
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        
+        void submit(Runnable delivery) {
+            queue.add(delivery);
+            if (draining.compareAndSet(false, true)) {
+                if (plugin.isEnabled()) {
+                    plugin.getServer().getAsyncScheduler().runNow(plugin, task -> drain());
+                } else {
+                    drain(); // Scheduler is unavailable while disabling
+                }
+            }
+        }
+        
+        boolean isIdle() {
+            return !draining.get() && queue.isEmpty();
+        }
+        
+        private void drain() {
+            do {
+                Runnable delivery;
+                while ((delivery = queue.poll()) != null) {
+                    try {
+                        delivery.run();
+                    } catch (RuntimeException e) {
+                        plugin.getLogger().warning("Failed to deliver chat message: " + e.getMessage());
+                    }
+                }
+                draining.set(false);
+                // Something may have been queued after the last poll but before the flag was cleared
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.mistasoup.chatprotect.handlers;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the broadcast component for a chat line: <PlayerName> message
+ *
+ * The "<PlayerName> " part is built once per player and reused until their name
+ * changes or they leave, so a message only costs the body component.
+ */
+public class ChatFormatter {
+    
+    private static final LegacyComponentSerializer SERIALIZER = LegacyComponentSerializer.legacyAmpersand();
+    
+    private final Map<UUID, CachedName> names = new ConcurrentHashMap<>();
+    
+    /**
+     * Full chat line for a message from sender
+     */
+    public Component format(Player sender, String displayMessage) {
+        return namePrefix(sender).append(body(displayMessage));
+    }
+    
+    /**
+     * The message body, with & color codes parsed only if there are any
+     */
+    public Component body(String displayMessage) {
+        if (displayMessage.indexOf('&') < 0) {
+            return Component.text(displayMessage);
+        }
+        return SERIALIZER.deserialize(displayMessage);
+    }
+    
+    /**
+     * Cached "<PlayerName> " component, rebuilt if the name no longer matches
+     */
+    public Component namePrefix(Player sender) {
+        String name = sender.getName();
+        CachedName cached = names.get(sender.getUniqueId());
+        
+        if (cached == null || !cached.name.equals(name)) {
+            cached = new CachedName(name);
+            names.put(sender.getUniqueId(), cached);
+        }
+        return cached.prefix;
+    }
+    
+    /**
+     * Drop a player's cached name (on quit)
+     */
+    public void invalidate(UUID uuid) {
+        names.remove(uuid);
+    }
+    
+    public void clear() {
+        names.clear();
+    }
+    
+    private static final class CachedName {
+        private final String name;
+        private final Component prefix;
+        
+        private CachedName(String name) {
+            this.name = name;
+            this.prefix = Component.text()
+                .append(Component.text("<", NamedTextColor.WHITE))
+                .append(Component.text(name, NamedTextColor.WHITE))
+                .append(Component.text("> ", NamedTextColor.WHITE))
+                .build();
+        }
+    }
+}
\ No newline at end of file
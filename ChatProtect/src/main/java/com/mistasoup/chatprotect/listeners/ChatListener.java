@@ -2,11 +2,15 @@ package com.mistasoup.chatprotect.listeners;
 
 import com.mistasoup.chatprotect.ChatProtect;
 import com.mistasoup.chatprotect.handlers.ChatChannel;
+import com.mistasoup.chatprotect.managers.ModerationExecutor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
 
 public class ChatListener implements Listener {
     
@@ -26,7 +30,21 @@ public class ChatListener implements Listener {
         Player player = event.getPlayer();
         String message = event.getMessage();
         
-        // Process through our custom chat channel
-        chatChannel.processMessage(player, message);
+        // Process through our custom chat channel, behind the player's earlier messages
+        if (!plugin.getModerationExecutor().submit(player.getUniqueId(), () -> chatChannel.processMessage(player, message))) {
+            String queueFull = plugin.getConfigManager().getSnapshot().getModerationQueueFullMessage();
+            if (!queueFull.isEmpty()) {
+                player.sendMessage(queueFull);
+            }
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        ModerationExecutor moderation = plugin.getModerationExecutor();
+        // Behind their queued messages, rendering those caches the player's name again
+        moderation.runAfterQueued(uuid, () -> chatChannel.handleQuit(uuid));
+        moderation.remove(uuid);
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.mistasoup.chatprotect.listeners;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.handlers.ChatChannel;
+import io.papermc.paper.chat.ChatRenderer;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Chat mode "paper": checks Paper's AsyncChatEvent in place and lets the server
+ * deliver it. Blocked messages are cancelled, allowed ones get a renderer that
+ * builds the line once and shares it with every viewer (and the console).
+ */
+public class PaperChatListener implements Listener {
+    
+    private static final PlainTextComponentSerializer PLAIN_TEXT = PlainTextComponentSerializer.plainText();
+    
+    private final ChatProtect plugin;
+    private final ChatChannel chatChannel;
+    
+    public PaperChatListener(ChatProtect plugin) {
+        this.plugin = plugin;
+        this.chatChannel = new ChatChannel(plugin);
+    }
+    
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onChat(AsyncChatEvent event) {
+        Player player = event.getPlayer();
+        String message = PLAIN_TEXT.serialize(event.message());
+        
+        if (!chatChannel.checkMessage(player, message)) {
+            event.setCancelled(true);
+            return;
+        }
+        
+        // Rendered here, once, instead of per viewer
+        Component rendered = chatChannel.render(player, message, plugin.getConfigManager().getSnapshot());
+        event.renderer(ChatRenderer.viewerUnaware((source, sourceDisplayName, component) -> rendered));
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        chatChannel.handleQuit(event.getPlayer().getUniqueId());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.mistasoup.chatprotect.listeners;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+
+/**
+ * Keeps per-player state (and lazily stored mutes) in step with players joining and leaving
+ */
+public class PlayerConnectionListener implements Listener {
+    
+    private final ChatProtect plugin;
+    
+    public PlayerConnectionListener(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Runs off the main thread before the player is in the world, so blocking
+     * on the mute store here means their mute is in place before they can chat
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            plugin.getMuteManager().loadPlayer(event.getUniqueId());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        // After anything still queued from before they left, so a late quit can't evict them
+        plugin.getModerationExecutor().runAfterQueued(uuid, () -> plugin.getPlayerDataManager().handleJoin(uuid));
+        plugin.getPlayerNameIndex().add(event.getPlayer());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        // Queued messages still use the player's data, drop it after them
+        plugin.getModerationExecutor().runAfterQueued(uuid, () -> plugin.getPlayerDataManager().handleQuit(uuid));
+        plugin.getPlayerNameIndex().remove(event.getPlayer());
+    }
+}
\ No newline at end of file
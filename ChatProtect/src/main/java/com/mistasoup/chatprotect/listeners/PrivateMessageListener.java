@@ -1,10 +1,9 @@
 package com.mistasoup.chatprotect.listeners;
 
 import com.mistasoup.chatprotect.ChatProtect;
-import com.mistasoup.chatprotect.data.PlayerData;
-import com.mistasoup.chatprotect.managers.ConfigManager;
-import com.mistasoup.chatprotect.utils.MessageUtils;
-import org.bukkit.Bukkit;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.filters.FilterResult;
+import com.mistasoup.chatprotect.filters.MessageContext;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -12,10 +11,10 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public class PrivateMessageListener implements Listener {
     
@@ -24,33 +23,25 @@ public class PrivateMessageListener implements Listener {
     
     public PrivateMessageListener(ChatProtect plugin) {
         this.plugin = plugin;
-        this.replyTargets = new HashMap<>();
+        this.replyTargets = new ConcurrentHashMap<>();
     }
     
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = false)
     public void onCommand(PlayerCommandPreprocessEvent event) {
-        if (!plugin.getConfigManager().isPrivateMessagingEnabled()) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.isPrivateMessagingEnabled()) {
             return;
         }
         
+        // Every command goes through here, anything that isn't a PM command leaves right away
         String message = event.getMessage();
-        if (!message.startsWith("/")) {
+        String command = config.getPrivateMessageCommandLookup().match(message);
+        if (command == null) {
             return;
         }
         
-        // Parse command
-        String[] parts = message.substring(1).split(" ", 3);
-        if (parts.length < 1) {
-            return;
-        }
-        
-        String command = parts[0].toLowerCase();
-        List<String> pmCommands = plugin.getConfigManager().getPrivateMessageCommands();
-        
-        // Check if this is a PM command
-        if (!pmCommands.contains(command)) {
-            return;
-        }
+        // "/msg <player> <message>" or "/r <message>"
+        int commandEnd = message.indexOf(' ');
         
         // This is a private message - cancel the event and handle it ourselves
         event.setCancelled(true);
@@ -61,7 +52,7 @@ public class PrivateMessageListener implements Listener {
         
         // Handle /r and /reply differently (they don't have a target player name)
         if (command.equals("r") || command.equals("reply")) {
-            if (parts.length < 2) {
+            if (commandEnd < 0) {
                 sender.sendMessage(org.bukkit.ChatColor.RED + "Usage: /" + command + " <message>");
                 return;
             }
@@ -73,89 +64,52 @@ public class PrivateMessageListener implements Listener {
                 return;
             }
             
-            receiver = Bukkit.getPlayer(replyTargetUUID);
+            receiver = plugin.getServer().getPlayer(replyTargetUUID);
             if (receiver == null || !receiver.isOnline()) {
                 sender.sendMessage(org.bukkit.ChatColor.RED + "That player is no longer online.");
                 replyTargets.remove(sender.getUniqueId()); // Clear stale reply target
                 return;
             }
             
-            pmMessage = message.substring(command.length() + 2); // Skip "/r " or "/reply "
+            pmMessage = message.substring(commandEnd + 1);
         } else {
             // Regular PM commands like /msg, /w, etc.
-            if (parts.length < 3) {
+            int nameEnd = commandEnd < 0 ? -1 : message.indexOf(' ', commandEnd + 1);
+            if (nameEnd < 0) {
                 sender.sendMessage(org.bukkit.ChatColor.RED + "Usage: /" + command + " <player> <message>");
                 return;
             }
             
-            String receiverName = parts[1];
-            pmMessage = parts[2];
+            String receiverName = message.substring(commandEnd + 1, nameEnd);
+            pmMessage = message.substring(nameEnd + 1);
             
-            receiver = Bukkit.getPlayer(receiverName);
+            receiver = plugin.getPlayerNameIndex().find(receiverName);
             if (receiver == null || !receiver.isOnline()) {
                 sender.sendMessage(org.bukkit.ChatColor.RED + "Player not found or not online.");
                 return;
             }
         }
         
-        logVerbose("=== PRIVATE MESSAGE INTERCEPTED ===");
-        logVerbose("From: " + sender.getName());
-        logVerbose("To: " + receiver.getName());
-        logVerbose("Message: " + pmMessage);
+        logVerbose(() -> "=== PRIVATE MESSAGE INTERCEPTED ===");
+        logVerbose(() -> "From: " + sender.getName());
+        logVerbose(() -> "To: " + receiver.getName());
+        logVerbose(() -> "Message: " + pmMessage);
         
-        // Check if sender has bypass
-        if (sender.hasPermission("chatprotect.bypass")) {
-            sendPrivateMessage(sender, receiver, pmMessage);
-            return;
-        }
+        MessageContext context = new MessageContext(sender, pmMessage, MessageContext.Channel.PRIVATE, config, plugin.getPlayerDataManager());
         
-        // Check if muted
-        UUID uuid = sender.getUniqueId();
-        if (plugin.getMuteManager().isMuted(uuid)) {
-            int secondsRemaining = plugin.getMuteManager().getMuteSecondsRemaining(uuid);
-            String muteMsg = plugin.getConfigManager().getMuteMessage()
-                .replace("{time}", String.valueOf(secondsRemaining));
-            sender.sendMessage(muteMsg);
-            logDebug("BLOCKED PM (muted) - " + sender.getName() + " to " + receiver.getName());
+        if (plugin.getFilterPipeline().run(context) == FilterResult.BLOCK) {
+            logDebug(() -> "BLOCKED PM (" + context.getReason() + ") - " + sender.getName() + " to " + receiver.getName());
             return;
         }
         
-        // Run anti-spam checks
-        PlayerData playerData = plugin.getPlayerDataManager().getPlayerData(uuid);
-        ConfigManager config = plugin.getConfigManager();
-        
-        // Check for spam kick
-        if (config.isAntiSpamKickEnabled()) {
-            if (checkSpamKick(sender, playerData, config)) {
-                logDebug("BLOCKED PM (spam kick) - " + sender.getName() + " to " + receiver.getName());
-                return;
-            }
+        if (context.getDecidedBy() == null) {
+            logDebug(() -> "ALLOWED PM - " + sender.getName() + " to " + receiver.getName());
         }
         
-        // Check for blocked words
-        if (config.isBlockedWordsEnabled()) {
-            if (MessageUtils.containsBlockedWord(pmMessage, config.getBlockedWords())) {
-                logDebug("BLOCKED PM (blocked word) - " + sender.getName() + " to " + receiver.getName());
-                return;
-            }
-        }
-        
-        // Check for duplicates
-        if (isDuplicateMessage(pmMessage, playerData, config)) {
-            logDebug("BLOCKED PM (duplicate) - " + sender.getName() + " to " + receiver.getName());
-            return;
-        }
-        
-        // Message passed all checks
-        playerData.addMessage(pmMessage);
-        logDebug("ALLOWED PM - " + sender.getName() + " to " + receiver.getName());
-        
-        sendPrivateMessage(sender, receiver, pmMessage);
+        sendPrivateMessage(sender, receiver, pmMessage, config);
     }
     
-    private void sendPrivateMessage(Player sender, Player receiver, String message) {
-        ConfigManager config = plugin.getConfigManager();
-        
+    private void sendPrivateMessage(Player sender, Player receiver, String message, ConfigSnapshot config) {
         // Track reply targets for both players
         replyTargets.put(sender.getUniqueId(), receiver.getUniqueId());
         replyTargets.put(receiver.getUniqueId(), sender.getUniqueId());
@@ -168,7 +122,7 @@ public class PrivateMessageListener implements Listener {
             .replace("{sender}", sender.getName())
             .replace("{receiver}", receiver.getName())
             .replace("{message}", coloredMessage);
-            
+        
         String receivedMsg = config.getPrivateMessageReceivedFormat()
             .replace("{sender}", sender.getName())
             .replace("{receiver}", receiver.getName())
@@ -184,91 +138,19 @@ public class PrivateMessageListener implements Listener {
         if (!receiverIsMuted || canReceive) {
             // Receiver is not muted, OR they are muted but can still receive
             receiver.sendMessage(receivedMsg);
-            logVerbose("PM sent successfully");
+            logVerbose(() -> "PM sent successfully");
         } else {
             // Receiver is muted and cannot receive PMs
-            logVerbose("PM not delivered to " + receiver.getName() + " (muted and config blocks receiving)");
-        }
-    }
-    
-    private boolean checkSpamKick(Player player, PlayerData playerData, ConfigManager config) {
-        long currentTime = System.currentTimeMillis();
-        long cutoffTime = currentTime - (config.getKickTimeWindow() * 1000L);
-        
-        playerData.cleanOldTimestamps(cutoffTime);
-        playerData.addTimestamp(currentTime);
-        
-        if (playerData.getRecentMessageCount() > config.getKickMessageThreshold()) {
-            // Record the kick for auto-mute
-            plugin.getMuteManager().recordSpamKick(player.getUniqueId());
-            
-            // Kick player
-            player.getScheduler().run(plugin, task -> {
-                player.kick(net.kyori.adventure.text.Component.text(config.getKickMessage()));
-            }, null);
-            return true;
+            logVerbose(() -> "PM not delivered to " + receiver.getName() + " (muted and config blocks receiving)");
         }
-        
-        return false;
     }
     
-    private boolean isDuplicateMessage(String message, PlayerData playerData, ConfigManager config) {
-        // Allow very short messages (1-2 chars) to avoid false positives
-        if (message.trim().length() <= 2) {
-            return false;
-        }
-        
-        String normalized = MessageUtils.normalizeMessage(message);
-        
-        // If normalized message is too short or empty, allow it
-        if (normalized.length() <= 1) {
-            return false;
-        }
-        
-        if (playerData.isOnCooldown(normalized)) {
-            return true;
-        }
-        
-        List<String> history = playerData.getMessageHistory();
-        for (String past : history) {
-            // Skip comparing with very short past messages
-            if (past.trim().length() <= 2) {
-                continue;
-            }
-            
-            double similarity = MessageUtils.calculateSimilarity(
-                MessageUtils.normalizeMessage(message),
-                MessageUtils.normalizeMessage(past)
-            );
-            
-            if (similarity >= config.getSimilarityThreshold()) {
-                playerData.incrementRepeatCount(normalized);
-                
-                if (playerData.getRepeatCount(normalized) >= config.getMaxRepeats()) {
-                    long cooldownExpiry = System.currentTimeMillis() + (config.getCooldownSeconds() * 1000L);
-                    playerData.setCooldown(normalized, cooldownExpiry);
-                    playerData.resetRepeatCount(normalized);
-                    return true;
-                }
-                
-                return false;
-            }
-        }
-        
-        playerData.resetRepeatCount(normalized);
-        return false;
+    private void logDebug(Supplier<String> message) {
+        plugin.getDebugLog().debug(message);
     }
     
-    private void logDebug(String message) {
-        if (plugin.getConfigManager().isDebugEnabled()) {
-            plugin.getLogger().info("[DEBUG] " + message);
-        }
-    }
-    
-    private void logVerbose(String message) {
-        if (plugin.getConfigManager().isVerboseEnabled()) {
-            plugin.getLogger().info("[VERBOSE] " + message);
-        }
+    private void logVerbose(Supplier<String> message) {
+        plugin.getDebugLog().verbose(message);
     }
     
     @EventHandler
@@ -1,152 +1,166 @@
 package com.mistasoup.chatprotect.managers;
 
 import com.mistasoup.chatprotect.ChatProtect;
-import org.bukkit.ChatColor;
-import org.bukkit.configuration.file.FileConfiguration;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.utils.BlockedWordMatcher;
 
 import java.util.List;
 
 public class ConfigManager {
     
     private final ChatProtect plugin;
-    private FileConfiguration config;
+    
+    // Swapped as a whole on reload, so a message never sees half-old, half-new settings
+    private volatile ConfigSnapshot snapshot;
     
     public ConfigManager(ChatProtect plugin) {
         this.plugin = plugin;
         plugin.saveDefaultConfig();
-        this.config = plugin.getConfig();
+        apply(new ConfigSnapshot(plugin.getConfig()));
     }
     
     public void reload() {
         plugin.reloadConfig();
-        this.config = plugin.getConfig();
+        apply(new ConfigSnapshot(plugin.getConfig()));
+    }
+    
+    private void apply(ConfigSnapshot snapshot) {
+        this.snapshot = snapshot;
+        plugin.getDebugLog().setLevels(snapshot.isDebugEnabled(), snapshot.isVerboseEnabled());
+    }
+    
+    /**
+     * Current settings. Read this once per message and pass it along
+     * instead of calling the getters below repeatedly.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
     }
     
     // Settings
     public int getMessageHistorySize() {
-        return config.getInt("settings.message-history-size", 10);
+        return snapshot.getMessageHistorySize();
     }
     
     public double getSimilarityThreshold() {
-        return config.getDouble("settings.similarity-threshold", 75.0);
+        return snapshot.getSimilarityThreshold();
     }
     
     public boolean isDebugEnabled() {
-        return config.getBoolean("settings.debug", false);
+        return snapshot.isDebugEnabled();
     }
     
     public boolean isVerboseEnabled() {
-        return config.getBoolean("settings.verbose", false);
+        return snapshot.isVerboseEnabled();
     }
     
     // Duplicate Messages
     public int getMaxRepeats() {
-        return config.getInt("duplicate-messages.max-repeats", 2);
+        return snapshot.getMaxRepeats();
     }
     
     public int getCooldownSeconds() {
-        return config.getInt("duplicate-messages.cooldown-seconds", 30);
+        return snapshot.getCooldownSeconds();
     }
     
     // Blocked Words
     public boolean isBlockedWordsEnabled() {
-        return config.getBoolean("blocked-words.enabled", true);
+        return snapshot.isBlockedWordsEnabled();
     }
     
     public List<String> getBlockedWords() {
-        return config.getStringList("blocked-words.word-list");
+        return snapshot.getBlockedWords();
+    }
+    
+    /**
+     * Blocked word list compiled on load and reload
+     */
+    public BlockedWordMatcher getBlockedWordMatcher() {
+        return snapshot.getBlockedWordMatcher();
     }
     
     // Anti-Spam Kick
     public boolean isAntiSpamKickEnabled() {
-        return config.getBoolean("anti-spam-kick.enabled", true);
+        return snapshot.isAntiSpamKickEnabled();
     }
     
     public int getKickMessageThreshold() {
-        return config.getInt("anti-spam-kick.message-threshold", 7);
+        return snapshot.getKickMessageThreshold();
     }
     
     public int getKickTimeWindow() {
-        return config.getInt("anti-spam-kick.time-window-seconds", 5);
+        return snapshot.getKickTimeWindow();
     }
     
     public String getKickMessage() {
-        return ChatColor.translateAlternateColorCodes('&', 
-            config.getString("anti-spam-kick.kick-message", "&cYou have been kicked for spamming!"));
+        return snapshot.getKickMessage();
     }
     
     // Auto-Mute
     public boolean isAutoMuteEnabled() {
-        return config.getBoolean("auto-mute.enabled", true);
+        return snapshot.isAutoMuteEnabled();
     }
     
     public int getAutoMuteKickThreshold() {
-        return config.getInt("auto-mute.kick-threshold", 3);
+        return snapshot.getAutoMuteKickThreshold();
     }
     
     public int getAutoMuteKickWindow() {
-        return config.getInt("auto-mute.kick-window-minutes", 10);
+        return snapshot.getAutoMuteKickWindow();
     }
     
     public int getAutoMuteDuration() {
-        return config.getInt("auto-mute.mute-duration-seconds", 300);
+        return snapshot.getAutoMuteDuration();
     }
     
     public String getMuteMessage() {
-        return ChatColor.translateAlternateColorCodes('&', 
-            config.getString("auto-mute.mute-message", "&cYou are muted for spamming. Time remaining: &e{time} &cseconds."));
+        return snapshot.getMuteMessage();
     }
     
     public boolean canMutedPlayersReceivePM() {
-        return config.getBoolean("auto-mute.allow-receive-pm", true);
+        return snapshot.canMutedPlayersReceivePM();
     }
     
     // Messages
     public String getReloadSuccessMessage() {
-        String message = config.getString("messages.reload-success", "");
-        return message.isEmpty() ? "" : ChatColor.translateAlternateColorCodes('&', message);
+        return snapshot.getReloadSuccessMessage();
     }
     
     public String getNoPermissionMessage() {
-        String message = config.getString("messages.no-permission", "");
-        return message.isEmpty() ? "" : ChatColor.translateAlternateColorCodes('&', message);
+        return snapshot.getNoPermissionMessage();
     }
     
     // Private Messaging
     public boolean isPrivateMessagingEnabled() {
-        return config.getBoolean("private-messaging.enabled", true);
+        return snapshot.isPrivateMessagingEnabled();
     }
     
     public String getPrivateMessageColor() {
-        return ChatColor.translateAlternateColorCodes('&', 
-            config.getString("private-messaging.message-color", "&d"));
+        return snapshot.getPrivateMessageColor();
     }
     
     public List<String> getPrivateMessageCommands() {
-        return config.getStringList("private-messaging.commands");
+        return snapshot.getPrivateMessageCommands();
     }
     
     public String getPrivateMessageSentFormat() {
-        return ChatColor.translateAlternateColorCodes('&', 
-            config.getString("private-messaging.sent-format", "&7[&dYou &7-> &d{receiver}&7] &r{message}"));
+        return snapshot.getPrivateMessageSentFormat();
     }
     
     public String getPrivateMessageReceivedFormat() {
-        return ChatColor.translateAlternateColorCodes('&', 
-            config.getString("private-messaging.received-format", "&7[&d{sender} &7-> &dYou&7] &r{message}"));
+        return snapshot.getPrivateMessageReceivedFormat();
     }
     
     // Chat Colors
     public boolean isChatColorsEnabled() {
-        return config.getBoolean("chat-colors.enabled", true);
+        return snapshot.isChatColorsEnabled();
     }
     
     public String getColorPrefix() {
-        return config.getString("chat-colors.color-prefix", ">");
+        return snapshot.getColorPrefix();
     }
     
     public String getPrefixColor() {
-        return ChatColor.translateAlternateColorCodes('&', 
-            config.getString("chat-colors.prefix-color", "&a"));
+        return snapshot.getPrefixColor();
     }
 }
\ No newline at end of file
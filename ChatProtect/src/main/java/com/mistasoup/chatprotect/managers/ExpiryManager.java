@@ -0,0 +1,55 @@
+package com.mistasoup.chatprotect.managers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.utils.TimerWheel;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * One timer wheel for everything that expires (mutes, kick windows, cooldowns,
+ * repeat counts, departed players), advanced once per server tick on the async
+ * scheduler. Tasks run on that async thread, so they must be thread-safe and hop
+ * onto the player's scheduler before touching the player.
+ */
+public class ExpiryManager {
+    
+    private static final long TICK_MILLIS = 50L; // One server tick
+    
+    private final ChatProtect plugin;
+    private final TimerWheel wheel;
+    private ScheduledTask tickTask;
+    
+    public ExpiryManager(ChatProtect plugin) {
+        this.plugin = plugin;
+        this.wheel = new TimerWheel(TICK_MILLIS, System.currentTimeMillis(),
+            e -> plugin.getLogger().log(Level.WARNING, "Expiry task failed", e));
+    }
+    
+    public void start() {
+        tickTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, task -> {
+            wheel.advance(System.currentTimeMillis());
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Run task at deadlineMillis (System.currentTimeMillis() time)
+     */
+    public TimerWheel.Timeout schedule(long deadlineMillis, Consumer<TimerWheel.Timeout> task) {
+        return wheel.schedule(deadlineMillis, task);
+    }
+    
+    public TimerWheel getWheel() {
+        return wheel;
+    }
+    
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        wheel.clear();
+    }
+}
\ No newline at end of file
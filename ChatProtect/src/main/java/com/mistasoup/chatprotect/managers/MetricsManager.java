@@ -0,0 +1,157 @@
+package com.mistasoup.chatprotect.managers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.filters.FilterPipeline;
+import com.mistasoup.chatprotect.utils.LatencyHistogram;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and verdict numbers for /cp stats and the optional periodic dump.
+ * Filter stages are measured by the FilterPipeline itself, this adds the
+ * broadcast side and turns everything into report lines.
+ */
+public class MetricsManager {
+    
+    private final ChatProtect plugin;
+    private final LatencyHistogram broadcastLatency = new LatencyHistogram();
+    private final LongAdder deliveries = new LongAdder();
+    private final LatencyHistogram moderationWait = new LatencyHistogram();
+    private final LongAdder moderationDrops = new LongAdder();
+    private volatile long since = System.currentTimeMillis();
+    private ScheduledTask dumpTask;
+    
+    public MetricsManager(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * A broadcast finished reaching every recipient
+     */
+    public void recordBroadcast(long nanos, int recipients) {
+        broadcastLatency.record(nanos);
+        deliveries.add(recipients);
+    }
+    
+    /**
+     * A chat message waited this long in its player's moderation queue
+     */
+    public void recordModerationWait(long nanos) {
+        moderationWait.record(nanos);
+    }
+    
+    /**
+     * A chat message was dropped because its player's moderation queue was full
+     */
+    public void recordModerationDrop() {
+        moderationDrops.increment();
+    }
+    
+    /**
+     * One line per filter stage, then the pipeline total and broadcasts
+     */
+    public List<String> getReport() {
+        List<String> lines = new ArrayList<>();
+        long seconds = (System.currentTimeMillis() - since) / 1000L;
+        lines.add("Since " + Instant.ofEpochMilli(since) + " (" + seconds + "s)");
+        
+        FilterPipeline pipeline = plugin.getFilterPipeline();
+        for (FilterPipeline.StageStats stage : pipeline.getStageStats()) {
+            lines.add(formatLine(stage.getName(), stage.getLatency(), "blocked " + stage.getBlocked()));
+        }
+        lines.add(formatLine("total", pipeline.getTotalLatency(),
+            "allowed " + pipeline.getAllowedCount() + ", blocked " + pipeline.getBlockedCount()));
+        lines.add(formatLine("broadcast", broadcastLatency, "deliveries " + deliveries.sum()));
+        if (plugin.getModerationExecutor().isRunning()) {
+            lines.add(formatLine("queue wait", moderationWait, "dropped " + moderationDrops.sum()));
+        }
+        
+        SyncManager syncManager = plugin.getSyncManager();
+        if (syncManager.isRunning()) {
+            lines.add("sync: " + syncManager.getSummary());
+        }
+        return lines;
+    }
+    
+    public void reset() {
+        plugin.getFilterPipeline().resetStats();
+        broadcastLatency.reset();
+        deliveries.reset();
+        moderationWait.reset();
+        moderationDrops.reset();
+        since = System.currentTimeMillis();
+    }
+    
+    /**
+     * (Re)schedule the dump from the current config
+     */
+    public synchronized void start() {
+        cancelDump();
+        
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        int interval = config.getMetricsDumpIntervalSeconds();
+        if (interval <= 0) {
+            return;
+        }
+        
+        File file = new File(config.getMetricsDumpFile());
+        if (!file.isAbsolute()) {
+            file = new File(plugin.getDataFolder(), config.getMetricsDumpFile());
+        }
+        File target = file;
+        dumpTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, task -> dump(target),
+            interval, interval, TimeUnit.SECONDS);
+    }
+    
+    public synchronized void shutdown() {
+        cancelDump();
+    }
+    
+    private void cancelDump() {
+        if (dumpTask != null) {
+            dumpTask.cancel();
+            dumpTask = null;
+        }
+    }
+    
+    private void dump(File file) {
+        List<String> lines = new ArrayList<>();
+        lines.add("--- " + Instant.now());
+        lines.addAll(getReport());
+        
+        try {
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write metrics to " + file.getName() + ": " + e.getMessage());
+        }
+    }
+    
+    private static String formatLine(String name, LatencyHistogram latency, String verdicts) {
+        return name + ": " + latency.getCount() + " calls, " + verdicts
+            + ", p50 " + formatNanos(latency.getPercentile(50))
+            + ", p99 " + formatNanos(latency.getPercentile(99))
+            + ", max " + formatNanos(latency.getMaxNanos());
+    }
+    
+    private static String formatNanos(long nanos) {
+        if (nanos < 10_000L) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000L) {
+            return (nanos / 1000L) + "us";
+        }
+        return (nanos / 1_000_000L) + "ms";
+    }
+}
\ No newline at end of file
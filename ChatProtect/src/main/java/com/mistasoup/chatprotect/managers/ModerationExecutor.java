@@ -0,0 +1,265 @@
+package com.mistasoup.chatprotect.managers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Runs chat moderation off the thread that fired the chat event.
+ *
+ * Each player has their own queue: their messages are checked one at a time and
+ * in the order they were sent (so duplicate detection sees them in order), while
+ * different players are checked in parallel. A player whose queue is full has
+ * their new messages dropped until it drains, so one spammer can't pile up work.
+ */
+public class ModerationExecutor {
+    
+    private static final int DEFAULT_MAX_THREADS = 4; // threads: 0, one per core up to this
+    private static final int MAX_TASKS_PER_TURN = 4; // Messages of one player before the others get a go
+    private static final long SHUTDOWN_WAIT_MILLIS = 2000L; // Lets queued messages finish on disable
+    
+    private final ChatProtect plugin;
+    private final Map<UUID, PlayerQueue> queues = new ConcurrentHashMap<>();
+    
+    private volatile ExecutorService executor; // null until started, messages run inline
+    
+    public ModerationExecutor(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Start the worker threads from moderation.* (read once at startup, legacy chat mode only)
+     */
+    public synchronized void start() {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        // Paper chat mode has to answer before the event returns, it checks in place
+        if (executor != null || config.isPaperChatMode()) {
+            return;
+        }
+        
+        // Platform threads by default: they keep the checks' per-thread scratch buffers
+        // (MessageUtils, VectorKernels) and the per-player locks don't pin them
+        if (config.isModerationVirtualThreads()) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ChatProtect Moderation ", 0).factory());
+            plugin.getLogger().info("Moderating chat on virtual threads");
+            return;
+        }
+        
+        int threads = config.getModerationThreads();
+        if (threads <= 0) {
+            threads = Math.min(DEFAULT_MAX_THREADS, Runtime.getRuntime().availableProcessors());
+        }
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ChatProtect Moderation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        plugin.getLogger().info("Moderating chat on " + threads + " threads");
+    }
+    
+    public boolean isRunning() {
+        return executor != null;
+    }
+    
+    /**
+     * Number of players with a queue (live or waiting to be dropped)
+     */
+    int getQueueCount() {
+        return queues.size();
+    }
+    
+    /**
+     * Queue a task behind the player's earlier ones.
+     * Returns false if the player's queue is full and the task was dropped.
+     */
+    public boolean submit(UUID uuid, Runnable task) {
+        ExecutorService current = executor;
+        if (current == null) {
+            task.run();
+            return true;
+        }
+        
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        PlayerQueue queue;
+        boolean schedule;
+        while (true) {
+            queue = queues.computeIfAbsent(uuid, PlayerQueue::new);
+            synchronized (queue) {
+                if (queue.removed) {
+                    continue; // Taken out of the map in the meantime, a new one replaces it
+                }
+                queue.retired = false; // Back before the messages from before leaving were done
+                
+                if (queue.tasks.size() >= config.getModerationMaxQueued()) {
+                    plugin.getMetricsManager().recordModerationDrop();
+                    return false;
+                }
+                queue.tasks.add(new QueuedTask(task, System.nanoTime()));
+                schedule = !queue.scheduled;
+                queue.scheduled = true;
+                break;
+            }
+        }
+        
+        if (schedule) {
+            PlayerQueue toDrain = queue;
+            try {
+                current.execute(() -> drain(toDrain));
+            } catch (RejectedExecutionException e) {
+                drain(toDrain); // Shutting down, finish here
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Run a task once the player's queued messages are done, right away if there are none.
+     * Never dropped like submit() can be: join and quit bookkeeping that must not
+     * overtake the messages (they would put the player's state back after it).
+     */
+    public void runAfterQueued(UUID uuid, Runnable task) {
+        PlayerQueue queue = queues.get(uuid);
+        if (queue != null) {
+            synchronized (queue) {
+                // Only a queue being drained has messages left, drain() runs this after them
+                if (queue.scheduled) {
+                    queue.tasks.add(new QueuedTask(task, System.nanoTime()));
+                    return;
+                }
+            }
+        }
+        task.run();
+    }
+    
+    /**
+     * Run the player's tasks until their queue is empty (or their turn is up)
+     */
+    private void drain(PlayerQueue queue) {
+        MetricsManager metrics = plugin.getMetricsManager();
+        for (int done = 0; ; done++) {
+            // Give the worker to other players now and then, the rest waits at the back of the line
+            ExecutorService current = executor;
+            if (done == MAX_TASKS_PER_TURN && current != null) {
+                try {
+                    current.execute(() -> drain(queue));
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // Shutting down, keep going here
+                }
+            }
+            
+            QueuedTask next;
+            boolean retired = false;
+            synchronized (queue) {
+                next = queue.tasks.poll();
+                if (next == null) {
+                    queue.scheduled = false;
+                    retired = queue.retired;
+                }
+            }
+            if (next == null) {
+                if (retired) {
+                    removeIfIdle(queue.uuid);
+                }
+                return;
+            }
+            
+            metrics.recordModerationWait(System.nanoTime() - next.queuedAt);
+            try {
+                next.task.run();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Chat moderation task failed", e);
+            }
+        }
+    }
+    
+    /**
+     * Forget a player's queue (player left). Messages already queued still run,
+     * the queue is dropped once they are done.
+     */
+    public void remove(UUID uuid) {
+        queues.computeIfPresent(uuid, (key, queue) -> {
+            synchronized (queue) {
+                if (queue.scheduled) {
+                    queue.retired = true; // drain() removes it when done
+                    return queue;
+                }
+                queue.removed = true;
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * Drop a retired queue unless the player came back and queued more in the meantime.
+     * Always locks the map before the queue, like remove().
+     */
+    private void removeIfIdle(UUID uuid) {
+        queues.computeIfPresent(uuid, (key, queue) -> {
+            synchronized (queue) {
+                if (queue.scheduled || !queue.retired) {
+                    return queue;
+                }
+                queue.removed = true;
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * Stop taking new work, give queued messages a moment to finish
+     */
+    public synchronized void shutdown() {
+        ExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+        executor = null;
+        
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(SHUTDOWN_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                plugin.getLogger().warning("Chat moderation did not finish in time, dropping queued messages");
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        queues.clear();
+    }
+    
+    private static final class PlayerQueue {
+        
+        private final UUID uuid;
+        private final Queue<QueuedTask> tasks = new ArrayDeque<>(); // Guarded by this
+        private boolean scheduled; // A worker is draining this queue, guarded by this
+        private boolean retired; // Player left, drop when drained, guarded by this
+        private boolean removed; // No longer in the map, guarded by this
+        
+        private PlayerQueue(UUID uuid) {
+            this.uuid = uuid;
+        }
+    }
+    
+    private static final class QueuedTask {
+        
+        private final Runnable task;
+        private final long queuedAt;
+        
+        private QueuedTask(Runnable task, long queuedAt) {
+            this.task = task;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
\ No newline at end of file
@@ -1,27 +1,48 @@
 package com.mistasoup.chatprotect.managers;
 
 import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
 import com.mistasoup.chatprotect.data.MuteData;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import com.mistasoup.chatprotect.storage.JournalMuteStore;
+import com.mistasoup.chatprotect.storage.MuteChange;
+import com.mistasoup.chatprotect.storage.MuteStore;
+import com.mistasoup.chatprotect.storage.SqliteMuteStore;
+import com.mistasoup.chatprotect.storage.YamlMuteStore;
+import com.mistasoup.chatprotect.utils.RateLimiter;
+import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public class MuteManager {
     
     private final ChatProtect plugin;
     private final Map<UUID, MuteData> activeMutes;
-    private final Map<UUID, List<Long>> recentKicks; // Track spam kicks
-    private final File muteFile;
+    private final Map<UUID, RateLimiter> recentKicks; // Track spam kicks
+    private final MuteStore store;
+    
+    // Background persistence: changes are queued, one delayed write hands them all to the store
+    private static final long SAVE_DELAY_MILLIS = 1000L;
+    private static final long RETRY_DELAY_MILLIS = 10_000L;
+    private final Queue<MuteChange> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final List<MuteChange> failedWrites = new ArrayList<>(); // Retried on the next save, guarded by this
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private volatile boolean maintenanceRequested;
+    private static final long MAINTENANCE_INTERVAL_MILLIS = 5 * 60 * 1000L;
     
     public MuteManager(ChatProtect plugin) {
         this.plugin = plugin;
-        this.activeMutes = new HashMap<>();
-        this.recentKicks = new HashMap<>();
-        this.muteFile = new File(plugin.getDataFolder(), "mutes.yml");
+        this.activeMutes = new ConcurrentHashMap<>();
+        this.recentKicks = new ConcurrentHashMap<>();
+        this.store = createStore(plugin.getConfigManager().getSnapshot());
         loadMutes();
+        scheduleMaintenance();
     }
     
     /**
@@ -29,17 +50,9 @@ public class MuteManager {
      */
     public boolean isMuted(UUID uuid) {
         MuteData mute = activeMutes.get(uuid);
-        if (mute == null) {
-            return false;
-        }
-        
-        // Check if mute expired
-        if (mute.isExpired()) {
-            unmute(uuid);
-            return false;
-        }
         
-        return true;
+        // Pure in-memory check, the expiry timer removes the mute (isExpired covers the last tick)
+        return mute != null && !mute.isExpired();
     }
     
     /**
@@ -59,130 +72,367 @@ public class MuteManager {
     public void mute(UUID uuid, int durationSeconds) {
         long expiryTime = System.currentTimeMillis() + (durationSeconds * 1000L);
         MuteData muteData = new MuteData(expiryTime, durationSeconds);
-        activeMutes.put(uuid, muteData);
-        saveMutes();
+        track(uuid, muteData);
+        pendingWrites.add(new MuteChange(uuid, muteData));
+        scheduleSave();
+        plugin.getSyncManager().publishMute(uuid, muteData);
+        
+        logVerbose(() -> "Muted player " + uuid + " for " + durationSeconds + " seconds");
+    }
+    
+    /**
+     * Mute several players at once (raids), with a single store write
+     */
+    public void muteAll(Collection<UUID> uuids, int durationSeconds) {
+        long expiryTime = System.currentTimeMillis() + (durationSeconds * 1000L);
+        for (UUID uuid : uuids) {
+            MuteData muteData = new MuteData(expiryTime, durationSeconds);
+            track(uuid, muteData);
+            pendingWrites.add(new MuteChange(uuid, muteData));
+            plugin.getSyncManager().publishMute(uuid, muteData);
+        }
+        scheduleSave();
         
-        logVerbose("Muted player " + uuid + " for " + durationSeconds + " seconds");
+        logVerbose(() -> "Muted " + uuids.size() + " players for " + durationSeconds + " seconds");
     }
     
     /**
      * Unmute a player
      */
     public void unmute(UUID uuid) {
-        activeMutes.remove(uuid);
-        saveMutes();
-        logVerbose("Unmuted player " + uuid);
+        // Lazy stores may hold a mute for a player who is not loaded here
+        if (activeMutes.remove(uuid) != null || store.isLazy()) {
+            pendingWrites.add(new MuteChange(uuid, null));
+            scheduleSave();
+        }
+        plugin.getSyncManager().publishUnmute(uuid);
+        logVerbose(() -> "Unmuted player " + uuid);
+    }
+    
+    /**
+     * Mute from another server (see SyncManager), stored here but not sent back out
+     */
+    public void applyRemoteMute(UUID uuid, MuteData mute) {
+        if (mute.isExpired()) {
+            return;
+        }
+        track(uuid, mute);
+        pendingWrites.add(new MuteChange(uuid, mute));
+        scheduleSave();
+        
+        logVerbose(() -> "Muted player " + uuid + " for " + mute.getSecondsRemaining() + " seconds (other server)");
+    }
+    
+    /**
+     * Unmute from another server
+     */
+    public void applyRemoteUnmute(UUID uuid) {
+        if (activeMutes.remove(uuid) != null || store.isLazy()) {
+            pendingWrites.add(new MuteChange(uuid, null));
+            scheduleSave();
+        }
+        logVerbose(() -> "Unmuted player " + uuid + " (other server)");
     }
     
     /**
      * Record a spam kick and check if player should be muted
      */
     public void recordSpamKick(UUID uuid) {
-        if (!plugin.getConfigManager().isAutoMuteEnabled()) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.isAutoMuteEnabled()) {
             return;
         }
         
         long currentTime = System.currentTimeMillis();
-        long windowMillis = plugin.getConfigManager().getAutoMuteKickWindow() * 60 * 1000L;
-        long cutoffTime = currentTime - windowMillis;
-        
-        // Get or create kick list
-        List<Long> kicks = recentKicks.computeIfAbsent(uuid, k -> new ArrayList<>());
+        long windowMillis = config.getAutoMuteKickWindow() * 60 * 1000L;
+        plugin.getSyncManager().publishSpamKick(uuid, currentTime);
         
-        // Remove old kicks outside the window
-        kicks.removeIf(kickTime -> kickTime < cutoffTime);
+        int threshold = config.getAutoMuteKickThreshold();
+        int[] kickCount = new int[1];
         
-        // Add current kick
-        kicks.add(currentTime);
+        // Update the kick window atomically for this player
+        recentKicks.compute(uuid, (key, kicks) -> {
+            // Muted once threshold kicks land in the window, i.e. more than threshold - 1
+            if (kicks == null || kicks.getLimit() != threshold - 1) {
+                kicks = new RateLimiter(threshold - 1);
+            }
+            
+            boolean exceeded = kicks.record(currentTime, windowMillis);
+            kickCount[0] = kicks.size();
+            
+            // Reset kick count once the player gets muted
+            return exceeded ? null : kicks;
+        });
         
-        int threshold = plugin.getConfigManager().getAutoMuteKickThreshold();
+        if (kickCount[0] < threshold) {
+            // Forget the window once this kick has left it (+1, the window end is inclusive)
+            plugin.getExpiryManager().schedule(currentTime + windowMillis + 1, task -> expireKicks(uuid));
+        }
         
-        logVerbose("Player " + uuid + " kick count: " + kicks.size() + "/" + threshold);
+        logVerbose(() -> "Player " + uuid + " kick count: " + kickCount[0] + "/" + threshold);
         
         // Check if threshold exceeded
-        if (kicks.size() >= threshold) {
-            int muteDuration = plugin.getConfigManager().getAutoMuteDuration();
+        if (kickCount[0] >= threshold) {
+            int muteDuration = config.getAutoMuteDuration();
             mute(uuid, muteDuration);
-            kicks.clear(); // Reset kick count after muting
             
             plugin.getLogger().info("Auto-muted player " + uuid + " for " + muteDuration + " seconds (spam kicks)");
         }
     }
     
     /**
-     * Clean up expired mutes and old kick records
+     * Count a spam kick from another server towards this player's kick window.
+     * Never mutes by itself: the server where the deciding kick happens mutes and shares it.
+     */
+    public void recordRemoteSpamKick(UUID uuid, long kickTime) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.isAutoMuteEnabled()) {
+            return;
+        }
+        
+        long windowMillis = config.getAutoMuteKickWindow() * 60 * 1000L;
+        int threshold = config.getAutoMuteKickThreshold();
+        recentKicks.compute(uuid, (key, kicks) -> {
+            if (kicks == null || kicks.getLimit() != threshold - 1) {
+                kicks = new RateLimiter(threshold - 1);
+            }
+            kicks.record(kickTime, windowMillis);
+            return kicks;
+        });
+        plugin.getExpiryManager().schedule(kickTime + windowMillis + 1, task -> expireKicks(uuid));
+        
+        logVerbose(() -> "Player " + uuid + " was kicked for spam on another server");
+    }
+    
+    /**
+     * Keep a mute in memory and drop it again the moment it expires
+     */
+    private void track(UUID uuid, MuteData mute) {
+        activeMutes.put(uuid, mute);
+        plugin.getExpiryManager().schedule(mute.getMuteExpiry(), task -> expireMute(uuid, mute));
+    }
+    
+    /**
+     * Timer callback, does nothing if the mute was lifted or replaced in the meantime.
+     * Stores skip expired mutes on load, so no write is needed.
      */
-    public void cleanup() {
-        // Remove expired mutes
-        activeMutes.entrySet().removeIf(entry -> entry.getValue().isExpired());
+    private void expireMute(UUID uuid, MuteData mute) {
+        if (!activeMutes.remove(uuid, mute)) {
+            return;
+        }
+        logVerbose(() -> "Mute expired for " + uuid);
         
-        // Clean old kick records
+        String message = plugin.getConfigManager().getSnapshot().getUnmuteMessage();
+        Player player = plugin.getServer().getPlayer(uuid);
+        if (player != null && !message.isEmpty()) {
+            player.getScheduler().run(plugin, task -> player.sendMessage(message), null);
+        }
+    }
+    
+    /**
+     * Timer callback, drops a player's kick window once no kick is left inside it
+     */
+    private void expireKicks(UUID uuid) {
         long currentTime = System.currentTimeMillis();
         long windowMillis = plugin.getConfigManager().getAutoMuteKickWindow() * 60 * 1000L;
-        long cutoffTime = currentTime - windowMillis;
         
-        recentKicks.values().forEach(kicks -> kicks.removeIf(kickTime -> kickTime < cutoffTime));
-        recentKicks.entrySet().removeIf(entry -> entry.getValue().isEmpty());
+        recentKicks.computeIfPresent(uuid, (key, kicks) ->
+            kicks.count(currentTime, windowMillis) == 0 ? null : kicks);
     }
     
     /**
-     * Save mutes to file (persistent storage)
+     * Let the store compact / purge in the background every few minutes
      */
-    private void saveMutes() {
+    private void scheduleMaintenance() {
+        plugin.getExpiryManager().schedule(System.currentTimeMillis() + MAINTENANCE_INTERVAL_MILLIS, task -> {
+            maintenanceRequested = true;
+            scheduleSave();
+            scheduleMaintenance();
+        });
+    }
+    
+    /**
+     * Refresh a player's mute from a lazy store as they log in.
+     * Blocks, so it must only be called off the main/region threads (e.g. pre-login).
+     */
+    public synchronized void loadPlayer(UUID uuid) {
+        if (!store.isLazy() || hasPendingChange(uuid)) {
+            return; // Memory is already authoritative
+        }
+        
         try {
-            FileConfiguration config = new YamlConfiguration();
-            
-            for (Map.Entry<UUID, MuteData> entry : activeMutes.entrySet()) {
-                String uuidStr = entry.getKey().toString();
-                MuteData mute = entry.getValue();
-                
-                config.set("mutes." + uuidStr + ".expiry", mute.getMuteExpiry());
-                config.set("mutes." + uuidStr + ".duration", mute.getMuteDuration());
+            // Another server sharing the store may have muted or unmuted them
+            MuteData mute = store.load(uuid);
+            if (mute != null) {
+                track(uuid, mute);
+                logVerbose(() -> "Loaded mute for " + uuid + " (" + mute.getSecondsRemaining() + "s remaining)");
+            } else {
+                activeMutes.remove(uuid);
             }
-            
-            config.save(muteFile);
         } catch (IOException e) {
-            plugin.getLogger().warning("Failed to save mutes: " + e.getMessage());
+            plugin.getLogger().warning("Failed to load mute for " + uuid + ": " + e.getMessage());
+        }
+    }
+    
+    private boolean hasPendingChange(UUID uuid) {
+        for (MuteChange change : pendingWrites) {
+            if (change.getUuid().equals(uuid)) {
+                return true;
+            }
+        }
+        for (MuteChange change : failedWrites) {
+            if (change.getUuid().equals(uuid)) {
+                return true;
+            }
         }
+        return false;
     }
     
     /**
-     * Load mutes from file
+     * Schedule a background store write if none is pending
      */
-    private void loadMutes() {
-        if (!muteFile.exists()) {
-            return;
+    private void scheduleSave() {
+        scheduleSave(SAVE_DELAY_MILLIS);
+    }
+    
+    private void scheduleSave(long delayMillis) {
+        if (saveScheduled.compareAndSet(false, true)) {
+            if (!plugin.isEnabled()) {
+                // Scheduler is unavailable while disabling, shutdown() writes instead
+                saveScheduled.set(false);
+                return;
+            }
+            plugin.getServer().getAsyncScheduler().runDelayed(plugin, task -> {
+                saveScheduled.set(false);
+                saveMutes();
+            }, delayMillis, TimeUnit.MILLISECONDS);
         }
+    }
+    
+    /**
+     * Write any pending changes right away (for plugin disable)
+     */
+    public void shutdown() {
+        saveMutes();
+        store.close();
+    }
+    
+    /**
+     * Hand every queued change to the store in one batch, then run maintenance if due
+     */
+    private synchronized void saveMutes() {
+        List<MuteChange> changes = new ArrayList<>(failedWrites);
+        failedWrites.clear();
+        
+        MuteChange change;
+        while ((change = pendingWrites.poll()) != null) {
+            changes.add(change);
+        }
+        
+        if (!changes.isEmpty()) {
+            try {
+                store.save(changes, activeMutes);
+            } catch (IOException e) {
+                // Keep the changes and retry even if nothing else changes in the meantime
+                failedWrites.addAll(changes);
+                plugin.getLogger().warning("Failed to save mutes, retrying in " + (RETRY_DELAY_MILLIS / 1000L) + "s: " + e.getMessage());
+                scheduleSave(RETRY_DELAY_MILLIS);
+            }
+        }
+        
+        if (maintenanceRequested) {
+            maintenanceRequested = false;
+            try {
+                store.maintain(activeMutes);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Mute storage maintenance failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Pick the store from storage.type (read once at startup)
+     */
+    private MuteStore createStore(ConfigSnapshot config) {
+        File dataFolder = plugin.getDataFolder();
+        YamlMuteStore yaml = new YamlMuteStore(new File(dataFolder, "mutes.yml"), plugin.getLogger());
+        
+        switch (config.getStorageType()) {
+            case "yaml":
+                return yaml;
+            case "sqlite":
+                File database = new File(config.getSqliteFile());
+                if (!database.isAbsolute()) {
+                    database = new File(dataFolder, config.getSqliteFile());
+                }
+                return new SqliteMuteStore(database);
+            case "journal":
+                break;
+            default:
+                plugin.getLogger().warning("Unknown storage type '" + config.getStorageType() + "', using journal");
+                break;
+        }
+        return new JournalMuteStore(new File(dataFolder, "mutes.journal"), yaml, plugin.getLogger());
+    }
+    
+    /**
+     * Load mutes from the store, or just the online players' mutes for lazy stores
+     */
+    private void loadMutes() {
+        long start = System.nanoTime();
         
         try {
-            FileConfiguration config = YamlConfiguration.loadConfiguration(muteFile);
-            
-            if (config.getConfigurationSection("mutes") == null) {
-                return;
+            if (store instanceof SqliteMuteStore && !((SqliteMuteStore) store).isImported()) {
+                importIntoDatabase((SqliteMuteStore) store);
             }
             
-            for (String uuidStr : config.getConfigurationSection("mutes").getKeys(false)) {
-                try {
-                    UUID uuid = UUID.fromString(uuidStr);
-                    long expiry = config.getLong("mutes." + uuidStr + ".expiry");
-                    int duration = config.getInt("mutes." + uuidStr + ".duration");
-                    
-                    MuteData mute = new MuteData(expiry, duration);
-                    
-                    // Only load if not expired
-                    if (!mute.isExpired()) {
-                        activeMutes.put(uuid, mute);
-                        logVerbose("Loaded mute for " + uuid + " (" + mute.getSecondsRemaining() + "s remaining)");
-                    }
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("Invalid UUID in mutes file: " + uuidStr);
-                }
+            for (Map.Entry<UUID, MuteData> entry : store.loadAll().entrySet()) {
+                track(entry.getKey(), entry.getValue());
             }
             
-            plugin.getLogger().info("Loaded " + activeMutes.size() + " active mutes");
-        } catch (Exception e) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+            if (store.isLazy()) {
+                plugin.getLogger().info("Using " + store.getName() + " for mutes, loading them as players join");
+            } else {
+                plugin.getLogger().info("Loaded " + activeMutes.size() + " active mutes from "
+                    + store.getName() + " (" + elapsedMillis + "ms)");
+            }
+        } catch (IOException e) {
             plugin.getLogger().warning("Failed to load mutes: " + e.getMessage());
         }
+        
+        if (store.isLazy() && !plugin.getServer().getOnlinePlayers().isEmpty()) {
+            // Enabled while players are online (e.g. plugin reload), look them up in the background
+            plugin.getServer().getAsyncScheduler().runNow(plugin, task -> {
+                for (Player player : plugin.getServer().getOnlinePlayers()) {
+                    loadPlayer(player.getUniqueId());
+                }
+            });
+        }
+    }
+    
+    /**
+     * Copy mutes from the journal or mutes.yml into a database that has not been imported into yet.
+     * The old files are left alone so switching back keeps working.
+     */
+    private void importIntoDatabase(SqliteMuteStore database) throws IOException {
+        File dataFolder = plugin.getDataFolder();
+        YamlMuteStore yaml = new YamlMuteStore(new File(dataFolder, "mutes.yml"), plugin.getLogger());
+        File journalFile = new File(dataFolder, "mutes.journal");
+        if (!journalFile.exists() && !yaml.exists()) {
+            database.importMutes(Collections.emptyMap(), "none"); // Nothing to bring over, don't look again
+            return;
+        }
+        
+        MuteStore source = journalFile.exists()
+            ? new JournalMuteStore(journalFile, yaml, plugin.getLogger())
+            : yaml;
+        
+        Map<UUID, MuteData> mutes = source.loadAll();
+        source.close();
+        database.importMutes(mutes, source.getName());
+        
+        plugin.getLogger().info("Imported " + mutes.size() + " active mutes from " + source.getName() + " into " + store.getName());
     }
     
     /**
@@ -193,9 +443,7 @@ public class MuteManager {
         recentKicks.clear();
     }
     
-    private void logVerbose(String message) {
-        if (plugin.getConfigManager().isVerboseEnabled()) {
-            plugin.getLogger().info("[VERBOSE] [MUTE] " + message);
-        }
+    private void logVerbose(Supplier<String> message) {
+        plugin.getDebugLog().verbose(() -> "[MUTE] " + message.get());
     }
 }
\ No newline at end of file
@@ -1,33 +1,89 @@
 package com.mistasoup.chatprotect.managers;
 
 import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
 import com.mistasoup.chatprotect.data.PlayerData;
+import com.mistasoup.chatprotect.utils.TimerWheel;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PlayerDataManager {
     
     private final ChatProtect plugin;
     private final Map<UUID, PlayerData> playerDataMap;
+    private final Map<UUID, TimerWheel.Timeout> pendingEvictions; // Players who left, and the timer that drops their data
     
     public PlayerDataManager(ChatProtect plugin) {
         this.plugin = plugin;
-        this.playerDataMap = new HashMap<>();
+        this.playerDataMap = new ConcurrentHashMap<>();
+        this.pendingEvictions = new ConcurrentHashMap<>();
     }
     
     public PlayerData getPlayerData(UUID uuid) {
-        return playerDataMap.computeIfAbsent(uuid, k -> 
-            new PlayerData(plugin.getConfigManager().getMessageHistorySize())
-        );
+        return playerDataMap.computeIfAbsent(uuid, k -> {
+            ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+            return new PlayerData(config.getMessageHistorySize(), config.getMaxEntriesPerPlayer(),
+                plugin.getExpiryManager().getWheel(), config.getEntryIdleSeconds() * 1000L);
+        });
     }
     
     public void removePlayerData(UUID uuid) {
-        playerDataMap.remove(uuid);
+        PlayerData playerData = playerDataMap.remove(uuid);
+        if (playerData != null) {
+            playerData.clear(); // Cancels its timers
+        }
+        cancelEviction(uuid);
+    }
+    
+    /**
+     * Player joined - keep their data if they left recently
+     */
+    public void handleJoin(UUID uuid) {
+        cancelEviction(uuid);
+    }
+    
+    /**
+     * Player left - drop their data once the grace period is over,
+     * so rejoining can't be used to reset spam counters
+     */
+    public void handleQuit(UUID uuid) {
+        if (!playerDataMap.containsKey(uuid)) {
+            return;
+        }
+        
+        long graceMillis = plugin.getConfigManager().getSnapshot().getQuitGraceSeconds() * 1000L;
+        if (graceMillis <= 0) {
+            removePlayerData(uuid);
+            return;
+        }
+        
+        TimerWheel.Timeout eviction = plugin.getExpiryManager().schedule(System.currentTimeMillis() + graceMillis,
+            timeout -> {
+                // Only evict if the player has not rejoined (and left again) in the meantime
+                if (pendingEvictions.remove(uuid, timeout)) {
+                    removePlayerData(uuid);
+                }
+            });
+        
+        TimerWheel.Timeout previous = pendingEvictions.put(uuid, eviction);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+    
+    private void cancelEviction(UUID uuid) {
+        TimerWheel.Timeout eviction = pendingEvictions.remove(uuid);
+        if (eviction != null) {
+            eviction.cancel();
+        }
     }
     
     public void clearAll() {
+        playerDataMap.values().forEach(PlayerData::clear);
         playerDataMap.clear();
+        pendingEvictions.values().forEach(TimerWheel.Timeout::cancel);
+        pendingEvictions.clear();
     }
 }
\ No newline at end of file
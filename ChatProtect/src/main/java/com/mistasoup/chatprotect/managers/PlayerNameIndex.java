@@ -0,0 +1,52 @@
+package com.mistasoup.chatprotect.managers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import org.bukkit.entity.Player;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Online players by lowercase name, kept up to date on join and quit,
+ * so PM targets are found with one map lookup instead of a scan of every player
+ */
+public class PlayerNameIndex {
+    
+    private final ChatProtect plugin;
+    private final Map<String, Player> byName = new ConcurrentHashMap<>();
+    
+    public PlayerNameIndex(ChatProtect plugin) {
+        this.plugin = plugin;
+        
+        // Players already online (plugin reload)
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            add(player);
+        }
+    }
+    
+    public void add(Player player) {
+        byName.put(player.getName().toLowerCase(Locale.ROOT), player);
+    }
+    
+    public void remove(Player player) {
+        // Only if the name still belongs to this player object (quick relog)
+        byName.remove(player.getName().toLowerCase(Locale.ROOT), player);
+    }
+    
+    /**
+     * Online player with exactly this name (any case). Falls back to the server's
+     * partial name match ("/msg not hi" for Notch), which scans every player.
+     */
+    public Player find(String name) {
+        Player player = byName.get(name.toLowerCase(Locale.ROOT));
+        if (player != null) {
+            return player;
+        }
+        return plugin.getServer().getPlayer(name);
+    }
+    
+    public void clear() {
+        byName.clear();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.mistasoup.chatprotect.managers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.utils.RecentMessageIndex;
+import com.mistasoup.chatprotect.utils.SimHash;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Catches the same (or nearly the same) message coming from many accounts at once,
+ * e.g. a bot raid where every alt posts an advert a single time, which the
+ * per-player duplicate check never sees.
+ */
+public class RaidManager {
+    
+    private static final int MAX_ENTRIES = 20000; // Hard cap on the window, whatever the chat rate
+    
+    private final ChatProtect plugin;
+    private final RecentMessageIndex index = new RecentMessageIndex(MAX_ENTRIES);
+    
+    public RaidManager(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Record a message and check whether it is part of a raid.
+     * Returns the number of accounts in the raid (0 if it is not one), and mutes
+     * every account of the raid that is not muted yet.
+     */
+    public int checkMessage(UUID sender, String normalizedMessage, ConfigSnapshot config) {
+        if (normalizedMessage.length() < config.getRaidMinLength()) {
+            return 0;
+        }
+        
+        int minAccounts = config.getRaidMinAccounts();
+        Set<UUID> senders = index.addAndFindSenders(sender, SimHash.of(normalizedMessage), System.currentTimeMillis(),
+            config.getRaidWindowSeconds() * 1000L, config.getRaidMaxDistance(), Integer.MAX_VALUE);
+        
+        if (senders.size() < minAccounts) {
+            return 0;
+        }
+        
+        int muteSeconds = config.getRaidMuteSeconds();
+        if (muteSeconds > 0) {
+            MuteManager muteManager = plugin.getMuteManager();
+            List<UUID> newlyMuted = new ArrayList<>();
+            for (UUID uuid : senders) {
+                if (!muteManager.isMuted(uuid)) {
+                    newlyMuted.add(uuid);
+                }
+            }
+            
+            if (!newlyMuted.isEmpty()) {
+                muteManager.muteAll(newlyMuted, muteSeconds);
+                plugin.getLogger().info("Raid detected: " + senders.size() + " accounts sent '" + normalizedMessage
+                    + "' within " + config.getRaidWindowSeconds() + "s, muted " + newlyMuted.size()
+                    + " of them for " + muteSeconds + " seconds");
+            }
+        }
+        
+        return senders.size();
+    }
+    
+    /**
+     * Forget every recent message (reload)
+     */
+    public void clear() {
+        index.clear();
+    }
+}
\ No newline at end of file
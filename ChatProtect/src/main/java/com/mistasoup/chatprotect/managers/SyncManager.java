@@ -0,0 +1,377 @@
+package com.mistasoup.chatprotect.managers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.data.MuteData;
+import com.mistasoup.chatprotect.sync.LoopbackTransport;
+import com.mistasoup.chatprotect.sync.PluginMessageTransport;
+import com.mistasoup.chatprotect.sync.SyncCodec;
+import com.mistasoup.chatprotect.sync.SyncEvent;
+import com.mistasoup.chatprotect.sync.SyncTransport;
+import com.mistasoup.chatprotect.sync.UdpTransport;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Shares mutes, unmutes and spam kicks with the other servers of a network.
+ *
+ * Every server keeps its own state and reads it locally (isMuted never waits on
+ * the network). Changes are queued and sent in batches every flush interval,
+ * and changes from other servers are applied as they arrive. Conflicting mute
+ * changes for the same player are ordered by their time (last one wins, ties go
+ * to the higher server id) so every server ends up with the same answer.
+ */
+public class SyncManager {
+    
+    private static final long MAX_KICK_AGE_MILLIS = 60 * 1000L; // Older spam kicks are stale or replayed
+    // Stamps are kept this long, older mute changes are ignored (a newer one may have been forgotten)
+    private static final long STAMP_RETENTION_MILLIS = 60 * 60 * 1000L;
+    
+    private final ChatProtect plugin;
+    private final Queue<SyncEvent> outgoing = new ConcurrentLinkedQueue<>();
+    // Not sent yet (or the transport couldn't send them), guarded by this
+    private final Map<UUID, SyncEvent> unsentMuteChanges = new LinkedHashMap<>(); // Only the latest per player
+    private final Deque<SyncEvent> unsentKicks = new ArrayDeque<>();
+    private final Map<UUID, Stamp> lastMuteChange = new ConcurrentHashMap<>();
+    // Server id -> player -> time of the latest spam kick applied (inner maps guarded by compute on the outer)
+    private final Map<UUID, Map<UUID, Long>> lastRemoteKick = new ConcurrentHashMap<>();
+    private final LongAdder sentEvents = new LongAdder();
+    private final LongAdder receivedEvents = new LongAdder();
+    private final LongAdder rejectedBatches = new LongAdder();
+    
+    private volatile SyncTransport transport; // null while sync is off
+    private SyncCodec codec;
+    private ScheduledTask flushTask;
+    
+    public SyncManager(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Connect the transport from sync.* (read once at startup)
+     */
+    public synchronized void start() {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.isSyncEnabled() || transport != null) {
+            return;
+        }
+        
+        SyncTransport created = createTransport(config);
+        if (created == null) {
+            return;
+        }
+        
+        this.codec = new SyncCodec(UUID.randomUUID(), config.getSyncSecret());
+        try {
+            created.start(this::receive);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to start mute sync over " + created.getName() + ": " + e.getMessage());
+            created.close();
+            return;
+        }
+        this.transport = created;
+        
+        long interval = config.getSyncFlushIntervalMillis();
+        flushTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, task -> flush(),
+            interval, interval, TimeUnit.MILLISECONDS);
+        
+        if (config.getSyncSecret().isEmpty()) {
+            plugin.getLogger().warning("sync.secret is empty, sync batches are not signed");
+        }
+        plugin.getLogger().info("Syncing mutes over " + created.getName() + " as server " + codec.getOrigin());
+    }
+    
+    public boolean isRunning() {
+        return transport != null;
+    }
+    
+    /**
+     * A player was muted on this server
+     */
+    public void publishMute(UUID uuid, MuteData mute) {
+        if (transport != null) {
+            long now = System.currentTimeMillis();
+            lastMuteChange.put(uuid, new Stamp(now, codec.getOrigin()));
+            outgoing.add(SyncEvent.mute(uuid, now, mute));
+        }
+    }
+    
+    /**
+     * A player was unmuted on this server
+     */
+    public void publishUnmute(UUID uuid) {
+        if (transport != null) {
+            long now = System.currentTimeMillis();
+            lastMuteChange.put(uuid, new Stamp(now, codec.getOrigin()));
+            outgoing.add(SyncEvent.unmute(uuid, now));
+        }
+    }
+    
+    /**
+     * A player was kicked for spam on this server
+     */
+    public void publishSpamKick(UUID uuid, long time) {
+        if (transport != null) {
+            outgoing.add(SyncEvent.spamKick(uuid, time));
+        }
+    }
+    
+    /**
+     * Send everything queued since the last flush, plus whatever could not be sent before.
+     * Unsent mute changes are kept per player (the latest replaces older ones), so a
+     * transport that is down for a while delays them but never loses the final state.
+     */
+    private synchronized void flush() {
+        SyncTransport current = transport;
+        if (current == null) {
+            return;
+        }
+        
+        SyncEvent event;
+        while ((event = outgoing.poll()) != null) {
+            if (event.getType() == SyncEvent.Type.SPAM_KICK) {
+                unsentKicks.addLast(event);
+                continue;
+            }
+            SyncEvent previous = unsentMuteChanges.remove(event.getUuid());
+            unsentMuteChanges.put(event.getUuid(), previous != null && previous.getTime() > event.getTime() ? previous : event);
+        }
+        
+        long now = System.currentTimeMillis();
+        dropExpired(now);
+        if (unsentMuteChanges.isEmpty() && unsentKicks.isEmpty()) {
+            return;
+        }
+        
+        List<SyncEvent> events = new ArrayList<>(unsentMuteChanges.size() + unsentKicks.size());
+        events.addAll(unsentMuteChanges.values());
+        events.addAll(unsentKicks);
+        int perPayload = codec.getEventsPerPayload(current.getMaxPayloadSize());
+        
+        int sent = 0;
+        for (byte[] payload : codec.encode(events, current.getMaxPayloadSize())) {
+            try {
+                if (!current.send(payload)) {
+                    break; // Retried on the next flush
+                }
+            } catch (IOException | RuntimeException e) {
+                plugin.getLogger().warning("Failed to send sync batch over " + current.getName() + ": " + e.getMessage());
+                break;
+            }
+            sent = Math.min(events.size(), sent + perPayload);
+        }
+        
+        for (int i = 0; i < sent; i++) {
+            SyncEvent done = events.get(i);
+            if (done.getType() == SyncEvent.Type.SPAM_KICK) {
+                unsentKicks.pollFirst();
+            } else {
+                unsentMuteChanges.remove(done.getUuid());
+            }
+        }
+        sentEvents.add(sent);
+    }
+    
+    /**
+     * Forget what the other servers would ignore anyway (see receive)
+     */
+    private void dropExpired(long now) {
+        int kicks = 0;
+        while (!unsentKicks.isEmpty() && unsentKicks.peekFirst().getTime() < now - MAX_KICK_AGE_MILLIS) {
+            unsentKicks.pollFirst();
+            kicks++;
+        }
+        int muteChanges = unsentMuteChanges.size();
+        unsentMuteChanges.values().removeIf(change -> change.getTime() < now - STAMP_RETENTION_MILLIS);
+        muteChanges -= unsentMuteChanges.size();
+        
+        if (kicks > 0 || muteChanges > 0) {
+            plugin.getLogger().warning("Dropped " + muteChanges + " mute changes and " + kicks
+                + " spam kicks that could not be sent in time");
+        }
+        
+        lastMuteChange.values().removeIf(stamp -> stamp.time < now - STAMP_RETENTION_MILLIS);
+        // Kicks this old are rejected by age, no need to remember them
+        for (UUID origin : lastRemoteKick.keySet()) {
+            lastRemoteKick.computeIfPresent(origin, (key, players) -> {
+                players.values().removeIf(time -> time < now - MAX_KICK_AGE_MILLIS);
+                return players.isEmpty() ? null : players;
+            });
+        }
+    }
+    
+    /**
+     * A batch arrived from another server (any thread)
+     */
+    private void receive(byte[] payload) {
+        SyncCodec.Batch batch;
+        try {
+            batch = codec.decode(payload);
+        } catch (IOException e) {
+            rejectedBatches.increment();
+            logVerbose(() -> "Rejected sync batch: " + e.getMessage());
+            return;
+        }
+        if (batch.getOrigin().equals(codec.getOrigin())) {
+            return; // Our own batch echoed back
+        }
+        
+        MuteManager muteManager = plugin.getMuteManager();
+        long now = System.currentTimeMillis();
+        for (SyncEvent event : batch.getEvents()) {
+            long maxAge = event.getType() == SyncEvent.Type.SPAM_KICK ? MAX_KICK_AGE_MILLIS : STAMP_RETENTION_MILLIS;
+            if (event.getTime() < now - maxAge) {
+                continue;
+            }
+            receivedEvents.increment();
+            
+            switch (event.getType()) {
+                case MUTE:
+                    if (isNewest(event, batch.getOrigin())) {
+                        muteManager.applyRemoteMute(event.getUuid(), event.getMute());
+                    }
+                    break;
+                case UNMUTE:
+                    if (isNewest(event, batch.getOrigin())) {
+                        muteManager.applyRemoteUnmute(event.getUuid());
+                    }
+                    break;
+                case SPAM_KICK:
+                    if (isNewKick(event, batch.getOrigin())) {
+                        muteManager.recordRemoteSpamKick(event.getUuid(), event.getTime());
+                    }
+                    break;
+            }
+        }
+        
+        logVerbose(() -> "Applied " + batch.getEvents().size() + " sync events from " + batch.getOrigin());
+    }
+    
+    /**
+     * Remember the event as the player's latest mute change unless a later one is known
+     */
+    private boolean isNewest(SyncEvent event, UUID origin) {
+        Stamp stamp = new Stamp(event.getTime(), origin);
+        boolean[] newest = new boolean[1];
+        lastMuteChange.compute(event.getUuid(), (key, current) -> {
+            newest[0] = current == null || stamp.isAfter(current);
+            return newest[0] ? stamp : current;
+        });
+        return newest[0];
+    }
+    
+    /**
+     * Mute changes are safe to apply twice (see isNewest), spam kicks are counted.
+     * A server sends a player's kicks in order, so one that isn't later than the
+     * last applied is a replay (or a stale duplicate).
+     */
+    private boolean isNewKick(SyncEvent event, UUID origin) {
+        boolean[] fresh = new boolean[1];
+        lastRemoteKick.compute(origin, (key, players) -> {
+            Map<UUID, Long> kicks = players != null ? players : new HashMap<>();
+            Long last = kicks.get(event.getUuid());
+            fresh[0] = last == null || event.getTime() > last;
+            if (fresh[0]) {
+                kicks.put(event.getUuid(), event.getTime());
+            }
+            return kicks;
+        });
+        return fresh[0];
+    }
+    
+    /**
+     * Events sent, events applied and batches rejected (bad signature or malformed)
+     */
+    public String getSummary() {
+        return "sent " + sentEvents.sum() + ", received " + receivedEvents.sum()
+            + ", rejected batches " + rejectedBatches.sum();
+    }
+    
+    /**
+     * Send what is still queued and disconnect
+     */
+    public synchronized void shutdown() {
+        if (transport == null) {
+            return;
+        }
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+        int unsent = unsentMuteChanges.size() + unsentKicks.size();
+        if (unsent > 0) {
+            plugin.getLogger().warning(unsent + " sync events could not be sent before shutdown");
+            unsentMuteChanges.clear();
+            unsentKicks.clear();
+        }
+        transport.close();
+        transport = null;
+    }
+    
+    private SyncTransport createTransport(ConfigSnapshot config) {
+        switch (config.getSyncTransport()) {
+            case "plugin-message":
+                return new PluginMessageTransport(plugin);
+            case "udp":
+                List<InetSocketAddress> peers = new ArrayList<>();
+                for (String peer : config.getSyncUdpPeers()) {
+                    int colon = peer.lastIndexOf(':');
+                    try {
+                        InetSocketAddress address = new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1)));
+                        if (address.isUnresolved()) {
+                            plugin.getLogger().warning("Unknown sync peer host '" + peer + "'");
+                        } else {
+                            peers.add(address);
+                        }
+                    } catch (RuntimeException e) {
+                        plugin.getLogger().warning("Invalid sync peer '" + peer + "', expected host:port");
+                    }
+                }
+                return new UdpTransport(config.getSyncUdpPort(), peers, plugin.getLogger());
+            case "loopback":
+                return new LoopbackTransport("ChatProtect");
+            default:
+                plugin.getLogger().warning("Unknown sync transport '" + config.getSyncTransport() + "', sync is off");
+                return null;
+        }
+    }
+    
+    private void logVerbose(Supplier<String> message) {
+        plugin.getDebugLog().verbose(() -> "[SYNC] " + message.get());
+    }
+    
+    /**
+     * When a mute change happened and on which server
+     */
+    private static final class Stamp {
+        
+        private final long time;
+        private final UUID origin;
+        
+        private Stamp(long time, UUID origin) {
+            this.time = time;
+            this.origin = origin;
+        }
+        
+        private boolean isAfter(Stamp other) {
+            return time != other.time ? time > other.time : origin.compareTo(other.origin) > 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.mistasoup.chatprotect.storage;
+
+import com.mistasoup.chatprotect.data.MuteData;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Default store: the binary append-only MuteJournal. Imports an old mutes.yml
+ * the first time it starts.
+ */
+public class JournalMuteStore implements MuteStore {
+    
+    private static final int COMPACT_MIN_RECORDS = 1024;
+    
+    private final MuteJournal journal;
+    private final YamlMuteStore legacy; // mutes.yml, imported into the journal once
+    private final Logger logger;
+    private boolean compactRequired; // An append failed, the file may be missing changes
+    private Map<UUID, MuteData> replayed; // Journal state as of the last replay plus every save since
+    
+    public JournalMuteStore(File journalFile, YamlMuteStore legacy, Logger logger) {
+        this.journal = new MuteJournal(journalFile);
+        this.legacy = legacy;
+        this.logger = logger;
+    }
+    
+    @Override
+    public String getName() {
+        return "mutes.journal";
+    }
+    
+    @Override
+    public boolean isLazy() {
+        return false;
+    }
+    
+    @Override
+    public Map<UUID, MuteData> loadAll() throws IOException {
+        Map<UUID, MuteData> mutes = !journal.exists() && legacy.exists()
+            ? importLegacyMutes()
+            : journal.load();
+        replayed = new HashMap<>(mutes);
+        return mutes;
+    }
+    
+    @Override
+    public MuteData load(UUID uuid) throws IOException {
+        if (replayed == null) {
+            loadAll();
+        }
+        // Every change goes through save(), so the replay never has to be repeated
+        MuteData mute = replayed.get(uuid);
+        return mute != null && !mute.isExpired() ? mute : null;
+    }
+    
+    /**
+     * Append the changes (O(1) each) and compact once superseded records
+     * outnumber the live mutes
+     */
+    @Override
+    public void save(List<MuteChange> changes, Map<UUID, MuteData> activeMutes) throws IOException {
+        if (replayed != null) {
+            // Failed batches come back in the next save, applying them twice is harmless
+            for (MuteChange change : changes) {
+                if (change.isUnmute()) {
+                    replayed.remove(change.getUuid());
+                } else {
+                    replayed.put(change.getUuid(), change.getMute());
+                }
+            }
+        }
+        
+        try {
+            if (!compactRequired) {
+                journal.append(changes);
+            }
+            
+            if (compactRequired || journal.getRecordCount() > compactionThreshold(activeMutes)) {
+                compact(activeMutes);
+            }
+        } catch (IOException e) {
+            // Appends may be lost - rewrite the whole state from memory next time
+            compactRequired = true;
+            throw e;
+        }
+    }
+    
+    @Override
+    public void maintain(Map<UUID, MuteData> activeMutes) throws IOException {
+        if (replayed != null) {
+            replayed.values().removeIf(MuteData::isExpired);
+        }
+        if (compactRequired || journal.getRecordCount() > compactionThreshold(activeMutes)) {
+            compact(activeMutes);
+        }
+    }
+    
+    @Override
+    public void close() {
+        journal.close();
+    }
+    
+    private void compact(Map<UUID, MuteData> activeMutes) throws IOException {
+        // The snapshot is taken from memory, so it already contains every queued change
+        journal.compact(new HashMap<>(activeMutes));
+        compactRequired = false;
+    }
+    
+    private static int compactionThreshold(Map<UUID, MuteData> activeMutes) {
+        return Math.max(COMPACT_MIN_RECORDS, activeMutes.size() * 2);
+    }
+    
+    /**
+     * One-time import of the old mutes.yml into the journal
+     */
+    private Map<UUID, MuteData> importLegacyMutes() throws IOException {
+        Map<UUID, MuteData> mutes = legacy.loadAll();
+        journal.compact(mutes);
+        
+        File file = legacy.getFile();
+        File imported = new File(file.getParentFile(), file.getName() + ".imported");
+        if (!file.renameTo(imported)) {
+            logger.warning("Could not rename " + file.getName() + " after import");
+        }
+        
+        logger.info("Imported " + mutes.size() + " active mutes from mutes.yml into mutes.journal");
+        return mutes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.mistasoup.chatprotect.storage;
+
+import com.mistasoup.chatprotect.data.MuteData;
+
+import java.util.UUID;
+
+/**
+ * A pending mute change waiting to be written, mute == null means unmute
+ */
+public final class MuteChange {
+    
+    private final UUID uuid;
+    private final MuteData mute;
+    
+    public MuteChange(UUID uuid, MuteData mute) {
+        this.uuid = uuid;
+        this.mute = mute;
+    }
+    
+    public UUID getUuid() {
+        return uuid;
+    }
+    
+    public MuteData getMute() {
+        return mute;
+    }
+    
+    public boolean isUnmute() {
+        return mute == null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,218 @@
+package com.mistasoup.chatprotect.storage;
+
+import com.mistasoup.chatprotect.data.MuteData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only binary log of mute and unmute events.
+ *
+ * Layout: a 5 byte header (magic + version) followed by fixed size records of
+ * type (1 byte), UUID (2 longs), expiry (long) and duration (int). Every mute event
+ * costs one 29 byte append, and loading is a single sequential read. Replaying the
+ * records in order rebuilds the mute map; compact() rewrites the file with only the
+ * live mutes once it has grown.
+ */
+public class MuteJournal {
+    
+    private static final int MAGIC = 0x43504D4A; // "CPMJ"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final int RECORD_SIZE = 29;
+    
+    private static final byte TYPE_MUTE = 1;
+    private static final byte TYPE_UNMUTE = 2;
+    
+    private final Path file;
+    private FileChannel channel; // Opened lazily for appending
+    private int recordCount;
+    
+    public MuteJournal(File file) {
+        this.file = file.toPath();
+    }
+    
+    public boolean exists() {
+        return Files.exists(file);
+    }
+    
+    /**
+     * Number of records in the journal, live or superseded
+     */
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * Replay the journal. Returns every mute that is still active.
+     * A torn record at the end (crash mid-append) is cut off. A file with a bad
+     * header is renamed to mutes.journal.corrupt-<time> and the load fails.
+     */
+    public synchronized Map<UUID, MuteData> load() throws IOException {
+        recordCount = 0;
+        
+        if (!Files.exists(file)) {
+            return new HashMap<>();
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        
+        // Sized for the worst case (every record a distinct mute) so replay never rehashes
+        int maxRecords = Math.max(0, buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        Map<UUID, MuteData> mutes = new HashMap<>((int) (maxRecords / 0.75f) + 1);
+        
+        if (buffer.remaining() < HEADER_SIZE) {
+            // Crashed while writing the header - nothing was recorded yet
+            Files.delete(file);
+            return mutes;
+        }
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            // Appends behind this header could never be read back, keep the file aside and start over
+            closeChannel();
+            Path corrupt = file.resolveSibling(file.getFileName() + ".corrupt-" + System.currentTimeMillis());
+            Files.move(file, corrupt);
+            throw new IOException("Not a ChatProtect mute journal: " + file.getFileName()
+                + " (moved to " + corrupt.getFileName() + ", starting a new journal)");
+        }
+        
+        int validEnd = HEADER_SIZE;
+        while (buffer.remaining() >= RECORD_SIZE) {
+            byte type = buffer.get();
+            UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+            long expiry = buffer.getLong();
+            int duration = buffer.getInt();
+            
+            if (type == TYPE_MUTE) {
+                mutes.put(uuid, new MuteData(expiry, duration));
+            } else if (type == TYPE_UNMUTE) {
+                mutes.remove(uuid);
+            } else {
+                break; // Corrupt record, ignore everything after it
+            }
+            
+            validEnd += RECORD_SIZE;
+            recordCount++;
+        }
+        
+        if (validEnd < buffer.capacity()) {
+            try (FileChannel truncate = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncate.truncate(validEnd);
+            }
+        }
+        
+        mutes.values().removeIf(MuteData::isExpired);
+        return mutes;
+    }
+    
+    /**
+     * Append mute (mute != null) and unmute (mute == null) events in one write
+     */
+    public synchronized void append(Collection<MuteChange> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        
+        FileChannel out = openChannel();
+        ByteBuffer buffer = ByteBuffer.allocate(changes.size() * RECORD_SIZE);
+        for (MuteChange change : changes) {
+            writeRecord(buffer, change.getUuid(), change.getMute());
+        }
+        buffer.flip();
+        
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        out.force(false);
+        recordCount += changes.size();
+    }
+    
+    /**
+     * Replace the journal with a snapshot holding one record per active mute.
+     * Written to a temp file and moved into place, so a crash keeps the old journal.
+     */
+    public synchronized void compact(Map<UUID, MuteData> mutes) throws IOException {
+        closeChannel();
+        
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        
+        int written = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + mutes.size() * RECORD_SIZE);
+            buffer.putInt(MAGIC).put(VERSION);
+            
+            for (Map.Entry<UUID, MuteData> entry : mutes.entrySet()) {
+                if (entry.getValue().isExpired()) {
+                    continue;
+                }
+                writeRecord(buffer, entry.getKey(), entry.getValue());
+                written++;
+            }
+            buffer.flip();
+            
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        recordCount = written;
+    }
+    
+    public synchronized void close() {
+        closeChannel();
+    }
+    
+    private FileChannel openChannel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put(VERSION);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            }
+        }
+        return channel;
+    }
+    
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing left to flush, force() runs after every append
+            }
+            channel = null;
+        }
+    }
+    
+    private static void writeRecord(ByteBuffer buffer, UUID uuid, MuteData mute) {
+        buffer.put(mute != null ? TYPE_MUTE : TYPE_UNMUTE);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        buffer.putLong(mute != null ? mute.getMuteExpiry() : 0L);
+        buffer.putInt(mute != null ? mute.getMuteDuration() : 0);
+    }
+}
\ No newline at end of file
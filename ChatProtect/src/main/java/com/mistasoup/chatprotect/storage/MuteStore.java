@@ -0,0 +1,49 @@
+package com.mistasoup.chatprotect.storage;
+
+import com.mistasoup.chatprotect.data.MuteData;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where mutes are persisted. MuteManager keeps the live mutes in memory and hands
+ * every change to the store in batches from a background thread, so implementations
+ * never run on a region thread and only need to be safe against one writer at a time.
+ */
+public interface MuteStore {
+    
+    /**
+     * Short name for log messages
+     */
+    String getName();
+    
+    /**
+     * True if the store looks players up on join instead of loading every mute at startup
+     */
+    boolean isLazy();
+    
+    /**
+     * Load every active mute (lazy stores return an empty map)
+     */
+    Map<UUID, MuteData> loadAll() throws IOException;
+    
+    /**
+     * Look up one player's mute, or null if they are not muted
+     */
+    MuteData load(UUID uuid) throws IOException;
+    
+    /**
+     * Persist a batch of changes in order. activeMutes is the live in-memory state
+     * (already containing the changes) for stores that rewrite everything.
+     */
+    void save(List<MuteChange> changes, Map<UUID, MuteData> activeMutes) throws IOException;
+    
+    /**
+     * Periodic housekeeping, e.g. dropping expired mutes or compacting
+     */
+    void maintain(Map<UUID, MuteData> activeMutes) throws IOException;
+    
+    void close();
+}
\ No newline at end of file
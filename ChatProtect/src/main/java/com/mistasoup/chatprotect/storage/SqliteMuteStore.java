@@ -0,0 +1,254 @@
+package com.mistasoup.chatprotect.storage;
+
+import com.mistasoup.chatprotect.data.MuteData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Embedded SQLite database (the driver ships with Paper/Folia, no server needed).
+ *
+ * Mutes are keyed by the two halves of the UUID, so a join is a single primary key
+ * lookup, and every batch of changes is written in one transaction. Nothing is
+ * loaded at startup - MuteManager asks for a player's mute when they log in.
+ * Several servers can point at the same file to share one mute list.
+ */
+public class SqliteMuteStore implements MuteStore {
+    
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS mutes ("
+        + "uuid_most INTEGER NOT NULL, "
+        + "uuid_least INTEGER NOT NULL, "
+        + "expiry INTEGER NOT NULL, "
+        + "duration INTEGER NOT NULL, "
+        + "PRIMARY KEY (uuid_most, uuid_least)) WITHOUT ROWID";
+    private static final String CREATE_EXPIRY_INDEX = "CREATE INDEX IF NOT EXISTS mutes_expiry ON mutes (expiry)";
+    private static final String CREATE_META_TABLE = "CREATE TABLE IF NOT EXISTS meta (key TEXT PRIMARY KEY, value TEXT NOT NULL)";
+    
+    private static final String SELECT_MUTE = "SELECT expiry, duration FROM mutes WHERE uuid_most = ? AND uuid_least = ? AND expiry > ?";
+    private static final String UPSERT_MUTE = "INSERT OR REPLACE INTO mutes (uuid_most, uuid_least, expiry, duration) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_MUTE = "DELETE FROM mutes WHERE uuid_most = ? AND uuid_least = ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM mutes WHERE expiry <= ?";
+    private static final String SELECT_META = "SELECT value FROM meta WHERE key = ?";
+    private static final String UPSERT_META = "INSERT OR REPLACE INTO meta (key, value) VALUES (?, ?)";
+    private static final String SELECT_ANY_MUTE = "SELECT 1 FROM mutes LIMIT 1";
+    
+    // Written in the same transaction as the imported mutes, so a failed import is retried
+    private static final String IMPORTED_KEY = "imported_from";
+    
+    private final File file;
+    private Connection connection; // Opened lazily, reopened if it breaks
+    
+    public SqliteMuteStore(File file) {
+        this.file = file;
+    }
+    
+    /**
+     * True once the old mutes have been copied in (see importMutes)
+     */
+    public synchronized boolean isImported() throws IOException {
+        Connection conn = connection();
+        try (PreparedStatement select = conn.prepareStatement(SELECT_META)) {
+            select.setString(1, IMPORTED_KEY);
+            try (ResultSet result = select.executeQuery()) {
+                if (result.next()) {
+                    return true;
+                }
+            }
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+        
+        // Databases from before the marker existed: mutes in the table mean it was imported back then
+        try (Statement statement = conn.createStatement();
+             ResultSet result = statement.executeQuery(SELECT_ANY_MUTE)) {
+            if (!result.next()) {
+                return false;
+            }
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+        write(Collections.emptyList(), "unknown");
+        return true;
+    }
+    
+    /**
+     * Copy mutes from another store and mark the database as imported, all in one transaction
+     */
+    public synchronized void importMutes(Map<UUID, MuteData> mutes, String source) throws IOException {
+        List<MuteChange> changes = new ArrayList<>(mutes.size());
+        for (Map.Entry<UUID, MuteData> entry : mutes.entrySet()) {
+            changes.add(new MuteChange(entry.getKey(), entry.getValue()));
+        }
+        write(changes, source);
+    }
+    
+    @Override
+    public String getName() {
+        return file.getName();
+    }
+    
+    @Override
+    public boolean isLazy() {
+        return true;
+    }
+    
+    @Override
+    public Map<UUID, MuteData> loadAll() {
+        // Players are looked up as they join
+        return new HashMap<>();
+    }
+    
+    @Override
+    public synchronized MuteData load(UUID uuid) throws IOException {
+        try (PreparedStatement statement = connection().prepareStatement(SELECT_MUTE)) {
+            statement.setLong(1, uuid.getMostSignificantBits());
+            statement.setLong(2, uuid.getLeastSignificantBits());
+            statement.setLong(3, System.currentTimeMillis());
+            
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? new MuteData(result.getLong(1), result.getInt(2)) : null;
+            }
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+    
+    @Override
+    public synchronized void save(List<MuteChange> changes, Map<UUID, MuteData> activeMutes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        write(changes, null);
+    }
+    
+    /**
+     * Write a batch in one transaction, recording the import marker too if importedFrom is set
+     */
+    private void write(List<MuteChange> changes, String importedFrom) throws IOException {
+        Connection conn = connection();
+        try {
+            conn.setAutoCommit(false);
+            
+            // Only the newest change per player matters, so each player is written once
+            Map<UUID, MuteChange> latest = new LinkedHashMap<>();
+            for (MuteChange change : changes) {
+                latest.put(change.getUuid(), change);
+            }
+            
+            try (PreparedStatement upsert = conn.prepareStatement(UPSERT_MUTE);
+                 PreparedStatement delete = conn.prepareStatement(DELETE_MUTE)) {
+                for (MuteChange change : latest.values()) {
+                    UUID uuid = change.getUuid();
+                    if (change.isUnmute()) {
+                        delete.setLong(1, uuid.getMostSignificantBits());
+                        delete.setLong(2, uuid.getLeastSignificantBits());
+                        delete.addBatch();
+                    } else {
+                        upsert.setLong(1, uuid.getMostSignificantBits());
+                        upsert.setLong(2, uuid.getLeastSignificantBits());
+                        upsert.setLong(3, change.getMute().getMuteExpiry());
+                        upsert.setInt(4, change.getMute().getMuteDuration());
+                        upsert.addBatch();
+                    }
+                }
+                upsert.executeBatch();
+                delete.executeBatch();
+            }
+            
+            if (importedFrom != null) {
+                try (PreparedStatement marker = conn.prepareStatement(UPSERT_META)) {
+                    marker.setString(1, IMPORTED_KEY);
+                    marker.setString(2, importedFrom);
+                    marker.executeUpdate();
+                }
+            }
+            
+            conn.commit();
+        } catch (SQLException e) {
+            rollback(conn);
+            throw failure(e);
+        } finally {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException ignored) {
+                // Connection is broken, the next call reopens it
+            }
+        }
+    }
+    
+    @Override
+    public synchronized void maintain(Map<UUID, MuteData> activeMutes) throws IOException {
+        try (PreparedStatement statement = connection().prepareStatement(DELETE_EXPIRED)) {
+            statement.setLong(1, System.currentTimeMillis());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Every batch is committed as it is written
+            }
+            connection = null;
+        }
+    }
+    
+    private Connection connection() throws IOException {
+        try {
+            if (connection == null || connection.isClosed()) {
+                Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+                Class.forName("org.sqlite.JDBC");
+                
+                Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+                try (Statement statement = conn.createStatement()) {
+                    // WAL lets other servers read while one is writing, busy_timeout waits out their locks
+                    statement.execute("PRAGMA journal_mode=WAL");
+                    statement.execute("PRAGMA synchronous=NORMAL");
+                    statement.execute("PRAGMA busy_timeout=5000");
+                    statement.execute(CREATE_TABLE);
+                    statement.execute(CREATE_EXPIRY_INDEX);
+                    statement.execute(CREATE_META_TABLE);
+                }
+                connection = conn;
+            }
+            return connection;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("SQLite driver not found, use storage type 'journal' instead", e);
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+    
+    private void rollback(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException ignored) {
+            // Uncommitted changes are dropped with the connection anyway
+        }
+    }
+    
+    private IOException failure(SQLException e) {
+        // Drop the connection so the next call starts fresh
+        close();
+        return new IOException("SQLite error: " + e.getMessage(), e);
+    }
+}
\ No newline at end of file
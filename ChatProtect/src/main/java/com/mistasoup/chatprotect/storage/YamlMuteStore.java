@@ -0,0 +1,135 @@
+package com.mistasoup.chatprotect.storage;
+
+import com.mistasoup.chatprotect.data.MuteData;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * The original mutes.yml format. Every save rewrites the whole file (atomically),
+ * so it is only a good fit for small servers, but it stays human-editable.
+ */
+public class YamlMuteStore implements MuteStore {
+    
+    private final File file;
+    private final Logger logger;
+    
+    public YamlMuteStore(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+    
+    public File getFile() {
+        return file;
+    }
+    
+    public boolean exists() {
+        return file.exists();
+    }
+    
+    @Override
+    public String getName() {
+        return file.getName();
+    }
+    
+    @Override
+    public boolean isLazy() {
+        return false;
+    }
+    
+    @Override
+    public Map<UUID, MuteData> loadAll() {
+        Map<UUID, MuteData> mutes = new HashMap<>();
+        if (!file.exists()) {
+            return mutes;
+        }
+        
+        FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+        ConfigurationSection section = config.getConfigurationSection("mutes");
+        if (section == null) {
+            return mutes;
+        }
+        
+        for (String uuidStr : section.getKeys(false)) {
+            try {
+                UUID uuid = UUID.fromString(uuidStr);
+                MuteData mute = new MuteData(section.getLong(uuidStr + ".expiry"), section.getInt(uuidStr + ".duration"));
+                
+                // Only load if not expired
+                if (!mute.isExpired()) {
+                    mutes.put(uuid, mute);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid UUID in mutes file: " + uuidStr);
+            }
+        }
+        return mutes;
+    }
+    
+    @Override
+    public MuteData load(UUID uuid) {
+        return loadAll().get(uuid);
+    }
+    
+    @Override
+    public void save(List<MuteChange> changes, Map<UUID, MuteData> activeMutes) throws IOException {
+        FileConfiguration config = new YamlConfiguration();
+        
+        for (Map.Entry<UUID, MuteData> entry : activeMutes.entrySet()) {
+            String uuidStr = entry.getKey().toString();
+            MuteData mute = entry.getValue();
+            
+            if (mute.isExpired()) {
+                continue;
+            }
+            
+            config.set("mutes." + uuidStr + ".expiry", mute.getMuteExpiry());
+            config.set("mutes." + uuidStr + ".duration", mute.getMuteDuration());
+        }
+        
+        Path target = file.toPath();
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(config.saveToString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            // On disk before the rename, or a crash could leave an empty mutes.yml behind
+            out.force(true);
+        }
+        
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    @Override
+    public void maintain(Map<UUID, MuteData> activeMutes) {
+        // Expired mutes are skipped on every save, nothing else to do
+    }
+    
+    @Override
+    public void close() {
+    }
+}
\ No newline at end of file
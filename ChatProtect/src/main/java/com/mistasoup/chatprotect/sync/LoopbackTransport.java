@@ -0,0 +1,59 @@
+package com.mistasoup.chatprotect.sync;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Delivers batches to every other loopback transport on the same channel in this JVM.
+ * For tests and the load simulator (several plugin instances in one process).
+ */
+public class LoopbackTransport implements SyncTransport {
+    
+    private static final Map<String, Set<LoopbackTransport>> CHANNELS = new ConcurrentHashMap<>();
+    
+    private final String channel;
+    private volatile Consumer<byte[]> receiver;
+    
+    public LoopbackTransport(String channel) {
+        this.channel = channel;
+    }
+    
+    @Override
+    public String getName() {
+        return "loopback (" + channel + ")";
+    }
+    
+    @Override
+    public int getMaxPayloadSize() {
+        return 65536;
+    }
+    
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        CHANNELS.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+    
+    @Override
+    public boolean send(byte[] payload) {
+        Set<LoopbackTransport> members = CHANNELS.get(channel);
+        if (members != null) {
+            for (LoopbackTransport member : members) {
+                if (member != this) {
+                    member.receiver.accept(payload.clone());
+                }
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (key, members) -> {
+            members.remove(this);
+            return members.isEmpty() ? null : members;
+        });
+    }
+}
\ No newline at end of file
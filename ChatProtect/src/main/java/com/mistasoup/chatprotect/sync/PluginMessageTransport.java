@@ -0,0 +1,106 @@
+package com.mistasoup.chatprotect.sync;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Sends batches through the proxy with the BungeeCord "Forward" message
+ * (understood by BungeeCord and Velocity).
+ *
+ * Plugin messages ride on a player's connection, so nothing can be sent while this
+ * server is empty, and the proxy only forwards to servers with someone online.
+ * Empty servers catch up from the mute store when players join.
+ */
+public class PluginMessageTransport implements SyncTransport, PluginMessageListener {
+    
+    private static final String CHANNEL = "BungeeCord";
+    private static final String SUBCHANNEL = "ChatProtectSync";
+    private static final int MAX_PAYLOAD_SIZE = 30000; // Forward data length is a short, leave room for the wrapper
+    
+    private final ChatProtect plugin;
+    private volatile Consumer<byte[]> receiver;
+    
+    public PluginMessageTransport(ChatProtect plugin) {
+        this.plugin = plugin;
+    }
+    
+    @Override
+    public String getName() {
+        return "plugin messaging";
+    }
+    
+    @Override
+    public int getMaxPayloadSize() {
+        return MAX_PAYLOAD_SIZE;
+    }
+    
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
+        plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, CHANNEL, this);
+    }
+    
+    @Override
+    public boolean send(byte[] payload) throws IOException {
+        // Disabled plugins can't schedule tasks or send plugin messages (last flush in onDisable)
+        if (!plugin.isEnabled()) {
+            return false;
+        }
+        
+        Iterator<? extends Player> players = plugin.getServer().getOnlinePlayers().iterator();
+        if (!players.hasNext()) {
+            return false;
+        }
+        Player carrier = players.next();
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF("Forward");
+        out.writeUTF("ALL");
+        out.writeUTF(SUBCHANNEL);
+        out.writeShort(payload.length);
+        out.write(payload);
+        byte[] message = bytes.toByteArray();
+        
+        // Null if the player left in the meantime
+        ScheduledTask task = carrier.getScheduler().run(plugin,
+            scheduled -> carrier.sendPluginMessage(plugin, CHANNEL, message), null);
+        return task != null;
+    }
+    
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        if (!CHANNEL.equals(channel)) {
+            return;
+        }
+        
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+            if (!SUBCHANNEL.equals(in.readUTF())) {
+                return;
+            }
+            byte[] payload = new byte[in.readUnsignedShort()];
+            in.readFully(payload);
+            receiver.accept(payload);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Malformed sync plugin message: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void close() {
+        plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, CHANNEL);
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL);
+    }
+}
\ No newline at end of file
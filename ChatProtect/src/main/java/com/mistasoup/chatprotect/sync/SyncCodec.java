@@ -0,0 +1,179 @@
+package com.mistasoup.chatprotect.sync;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary format of a batch of sync events.
+ *
+ * Layout: a 23 byte header (magic, version, origin server id, event count) followed
+ * by fixed size records of type (1 byte), UUID (2 longs), time (long), mute expiry
+ * (long) and mute duration (int). With a shared secret a 16 byte HMAC-SHA256 tag
+ * of everything before it is appended, and batches with a wrong tag are rejected.
+ */
+public class SyncCodec {
+    
+    private static final int MAGIC = 0x43505359; // "CPSY"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 23;
+    private static final int RECORD_SIZE = 37;
+    private static final int TAG_SIZE = 16;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    
+    private static final SyncEvent.Type[] TYPES = SyncEvent.Type.values();
+    
+    private final UUID origin;
+    private final SecretKeySpec key; // null = unsigned
+    
+    public SyncCodec(UUID origin, String secret) {
+        this.origin = origin;
+        this.key = secret == null || secret.isEmpty()
+            ? null
+            : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+    }
+    
+    /**
+     * Id of this server, sent with every batch so a server can skip its own
+     */
+    public UUID getOrigin() {
+        return origin;
+    }
+    
+    /**
+     * Encode events into as few payloads of at most maxPayloadSize bytes as possible
+     */
+    public List<byte[]> encode(List<SyncEvent> events, int maxPayloadSize) {
+        int perBatch = getEventsPerPayload(maxPayloadSize);
+        
+        List<byte[]> payloads = new ArrayList<>();
+        for (int from = 0; from < events.size(); from += perBatch) {
+            payloads.add(encodeBatch(events.subList(from, Math.min(events.size(), from + perBatch))));
+        }
+        return payloads;
+    }
+    
+    /**
+     * How many events encode() puts in each payload, payload i holds events
+     * i * n up to (i + 1) * n
+     */
+    public int getEventsPerPayload(int maxPayloadSize) {
+        int perBatch = Math.max(1, (maxPayloadSize - HEADER_SIZE - tagSize()) / RECORD_SIZE);
+        return Math.min(perBatch, Short.MAX_VALUE);
+    }
+    
+    private byte[] encodeBatch(List<SyncEvent> events) {
+        int bodySize = HEADER_SIZE + events.size() * RECORD_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(bodySize + tagSize());
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putLong(origin.getMostSignificantBits());
+        buffer.putLong(origin.getLeastSignificantBits());
+        buffer.putShort((short) events.size());
+        
+        for (SyncEvent event : events) {
+            buffer.put((byte) event.getType().ordinal());
+            buffer.putLong(event.getUuid().getMostSignificantBits());
+            buffer.putLong(event.getUuid().getLeastSignificantBits());
+            buffer.putLong(event.getTime());
+            buffer.putLong(event.getMuteExpiry());
+            buffer.putInt(event.getMuteDuration());
+        }
+        
+        byte[] payload = buffer.array();
+        if (key != null) {
+            System.arraycopy(tag(payload, bodySize), 0, payload, bodySize, TAG_SIZE);
+        }
+        return payload;
+    }
+    
+    /**
+     * Decode a payload from another server
+     *
+     * @throws IOException if it is malformed or not signed with our secret
+     */
+    public Batch decode(byte[] payload) throws IOException {
+        if (payload.length < HEADER_SIZE + tagSize()) {
+            throw new IOException("Sync batch too short (" + payload.length + " bytes)");
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a ChatProtect sync batch");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported sync batch version " + version);
+        }
+        UUID sender = new UUID(buffer.getLong(), buffer.getLong());
+        int count = buffer.getShort() & 0xFFFF;
+        
+        int bodySize = HEADER_SIZE + count * RECORD_SIZE;
+        if (payload.length != bodySize + tagSize()) {
+            throw new IOException("Sync batch size mismatch (" + payload.length + " bytes for " + count + " events)");
+        }
+        if (key != null && !MessageDigest.isEqual(tag(payload, bodySize),
+            Arrays.copyOfRange(payload, bodySize, payload.length))) {
+            throw new IOException("Sync batch from " + sender + " has a bad signature (different secret?)");
+        }
+        
+        List<SyncEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int type = buffer.get();
+            if (type < 0 || type >= TYPES.length) {
+                throw new IOException("Unknown sync event type " + type);
+            }
+            UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+            events.add(new SyncEvent(TYPES[type], uuid, buffer.getLong(), buffer.getLong(), buffer.getInt()));
+        }
+        return new Batch(sender, Collections.unmodifiableList(events));
+    }
+    
+    private int tagSize() {
+        return key != null ? TAG_SIZE : 0;
+    }
+    
+    private byte[] tag(byte[] payload, int length) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            mac.update(payload, 0, length);
+            byte[] tag = new byte[TAG_SIZE];
+            System.arraycopy(mac.doFinal(), 0, tag, 0, TAG_SIZE);
+            return tag;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " is not available", e);
+        }
+    }
+    
+    /**
+     * A decoded payload: who sent it and what happened
+     */
+    public static final class Batch {
+        
+        private final UUID origin;
+        private final List<SyncEvent> events;
+        
+        private Batch(UUID origin, List<SyncEvent> events) {
+            this.origin = origin;
+            this.events = events;
+        }
+        
+        public UUID getOrigin() {
+            return origin;
+        }
+        
+        public List<SyncEvent> getEvents() {
+            return events;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.mistasoup.chatprotect.sync;
+
+import com.mistasoup.chatprotect.data.MuteData;
+
+import java.util.UUID;
+
+/**
+ * One change shared with the other servers: a mute, an unmute or a spam kick
+ */
+public final class SyncEvent {
+    
+    public enum Type {
+        MUTE,
+        UNMUTE,
+        SPAM_KICK
+    }
+    
+    private final Type type;
+    private final UUID uuid;
+    private final long time; // When it happened (milliseconds), orders conflicting mute changes
+    private final long muteExpiry; // Only for MUTE
+    private final int muteDuration;
+    
+    SyncEvent(Type type, UUID uuid, long time, long muteExpiry, int muteDuration) {
+        this.type = type;
+        this.uuid = uuid;
+        this.time = time;
+        this.muteExpiry = muteExpiry;
+        this.muteDuration = muteDuration;
+    }
+    
+    public static SyncEvent mute(UUID uuid, long time, MuteData mute) {
+        return new SyncEvent(Type.MUTE, uuid, time, mute.getMuteExpiry(), mute.getMuteDuration());
+    }
+    
+    public static SyncEvent unmute(UUID uuid, long time) {
+        return new SyncEvent(Type.UNMUTE, uuid, time, 0L, 0);
+    }
+    
+    public static SyncEvent spamKick(UUID uuid, long time) {
+        return new SyncEvent(Type.SPAM_KICK, uuid, time, 0L, 0);
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public UUID getUuid() {
+        return uuid;
+    }
+    
+    public long getTime() {
+        return time;
+    }
+    
+    /**
+     * The mute carried by a MUTE event
+     */
+    public MuteData getMute() {
+        return new MuteData(muteExpiry, muteDuration);
+    }
+    
+    long getMuteExpiry() {
+        return muteExpiry;
+    }
+    
+    int getMuteDuration() {
+        return muteDuration;
+    }
+}
\ No newline at end of file
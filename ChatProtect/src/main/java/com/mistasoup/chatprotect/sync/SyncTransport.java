@@ -0,0 +1,35 @@
+package com.mistasoup.chatprotect.sync;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * How batches of sync events travel between servers. SyncManager only ever
+ * calls send() from one background thread at a time, the receiver may be
+ * called from any thread.
+ */
+public interface SyncTransport {
+    
+    /**
+     * Short name for log messages
+     */
+    String getName();
+    
+    /**
+     * Largest payload send() accepts, batches are split to fit
+     */
+    int getMaxPayloadSize();
+    
+    /**
+     * Start listening, every payload from another server is handed to receiver
+     */
+    void start(Consumer<byte[]> receiver) throws IOException;
+    
+    /**
+     * Send a payload to every other server.
+     * Returns false if it can't be sent right now (SyncManager keeps it and retries).
+     */
+    boolean send(byte[] payload) throws IOException;
+    
+    void close();
+}
\ No newline at end of file
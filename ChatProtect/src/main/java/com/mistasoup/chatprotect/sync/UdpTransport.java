@@ -0,0 +1,106 @@
+package com.mistasoup.chatprotect.sync;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends every batch as one UDP datagram to each configured peer.
+ * Batches are kept under a typical MTU so they are never fragmented, a lost
+ * datagram only loses that batch. Set a secret, anyone who can reach the
+ * port could send mutes otherwise.
+ */
+public class UdpTransport implements SyncTransport {
+    
+    private static final int MAX_PAYLOAD_SIZE = 1400;
+    
+    private final int port;
+    private final List<InetSocketAddress> peers;
+    private final Logger logger;
+    private DatagramSocket socket;
+    private Thread reader;
+    
+    public UdpTransport(int port, List<InetSocketAddress> peers, Logger logger) {
+        this.port = port;
+        this.peers = List.copyOf(peers);
+        this.logger = logger;
+    }
+    
+    @Override
+    public String getName() {
+        return "UDP port " + port + " (" + peers.size() + " peers)";
+    }
+    
+    @Override
+    public int getMaxPayloadSize() {
+        return MAX_PAYLOAD_SIZE;
+    }
+    
+    @Override
+    public synchronized void start(Consumer<byte[]> receiver) throws IOException {
+        socket = new DatagramSocket(port);
+        DatagramSocket listening = socket;
+        reader = new Thread(() -> readLoop(listening, receiver), "ChatProtect Sync Receiver");
+        reader.setDaemon(true);
+        reader.start();
+    }
+    
+    private void readLoop(DatagramSocket listening, Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MAX_PAYLOAD_SIZE];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!listening.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                listening.receive(packet);
+                receiver.accept(Arrays.copyOf(buffer, packet.getLength()));
+            } catch (SocketException e) {
+                // Closed by close()
+            } catch (IOException e) {
+                logger.warning("Failed to receive sync batch: " + e.getMessage());
+            } catch (RuntimeException e) {
+                // A batch that fails to apply must not end the reader, later batches still count
+                logger.log(Level.WARNING, "Failed to apply sync batch", e);
+            }
+        }
+    }
+    
+    @Override
+    public boolean send(byte[] payload) {
+        DatagramSocket sending = socket;
+        if (sending == null) {
+            return false;
+        }
+        for (InetSocketAddress peer : peers) {
+            try {
+                sending.send(new DatagramPacket(payload, payload.length, peer));
+            } catch (IOException e) {
+                // One unreachable peer shouldn't hold up the others
+                logger.warning("Failed to send sync batch to " + peer + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (socket != null) {
+            socket.close();
+            socket = null;
+        }
+        if (reader != null) {
+            try {
+                reader.join(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reader = null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,367 @@
+package com.mistasoup.chatprotect.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Blocked word list compiled into an Aho-Corasick automaton over normalized text,
+ * so a message is checked in a single pass no matter how many words are blocked.
+ *
+ * A message is blocked when:
+ * - its normalized form contains a blocked word
+ * - its normalized form is at least 80% similar to a blocked word
+ * - one of its words (longer than 2 chars) is part of a blocked word
+ */
+public class BlockedWordMatcher {
+    
+    private static final double SIMILARITY_THRESHOLD = 80.0;
+    
+    private final String[] entries; // Original word list entries
+    private final String[] patterns; // Normalized form of each entry
+    private final Automaton automaton; // Aho-Corasick automaton of all patterns
+    private final Automaton factors; // Trie of every suffix of every pattern (per-word check)
+    private final int[][] patternsByLength; // Pattern indexes grouped by normalized length
+    
+    private BlockedWordMatcher(String[] entries, String[] patterns) {
+        this.entries = entries;
+        this.patterns = patterns;
+        
+        Builder automatonBuilder = new Builder();
+        Builder factorBuilder = new Builder();
+        int maxLength = 0;
+        
+        for (int i = 0; i < patterns.length; i++) {
+            String pattern = patterns[i];
+            automatonBuilder.insert(pattern, 0, i, false);
+            
+            // Every substring of a pattern is a prefix of one of its suffixes
+            for (int start = 0; start < pattern.length(); start++) {
+                factorBuilder.insert(pattern, start, i, true);
+            }
+            
+            maxLength = Math.max(maxLength, pattern.length());
+        }
+        
+        this.automaton = automatonBuilder.build(true);
+        this.factors = factorBuilder.build(false);
+        
+        int[] counts = new int[maxLength + 1];
+        for (String pattern : patterns) {
+            counts[pattern.length()]++;
+        }
+        this.patternsByLength = new int[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            patternsByLength[length] = new int[counts[length]];
+            counts[length] = 0;
+        }
+        for (int i = 0; i < patterns.length; i++) {
+            int length = patterns[i].length();
+            patternsByLength[length][counts[length]++] = i;
+        }
+    }
+    
+    /**
+     * Compile a blocked word list. Entries that normalize to nothing are ignored,
+     * duplicates (after normalization) keep the first entry.
+     */
+    public static BlockedWordMatcher compile(List<String> blockedWords) {
+        Map<String, String> unique = new LinkedHashMap<>();
+        
+        if (blockedWords != null) {
+            for (String word : blockedWords) {
+                if (word == null) {
+                    continue;
+                }
+                String normalized = MessageUtils.normalizeMessage(word);
+                if (!normalized.isEmpty()) {
+                    unique.putIfAbsent(normalized, word);
+                }
+            }
+        }
+        
+        return new BlockedWordMatcher(
+            unique.values().toArray(new String[0]),
+            unique.keySet().toArray(new String[0])
+        );
+    }
+    
+    /**
+     * Number of distinct blocked words in this matcher
+     */
+    public int size() {
+        return patterns.length;
+    }
+    
+    /**
+     * Check if a message contains a blocked word
+     */
+    public boolean matches(String message) {
+        return findMatch(message) != null;
+    }
+    
+    /**
+     * Find the blocked word list entry a message matches
+     * Returns null if the message is clean
+     */
+    public String findMatch(String message) {
+        return findMatch(message, null);
+    }
+    
+    /**
+     * Find the blocked word list entry a message matches, reusing its already
+     * normalized form (MessageUtils.normalizeMessage) if the caller has one
+     * Returns null if the message is clean
+     */
+    public String findMatch(String message, String normalizedMessage) {
+        // Allow very short messages to pass without blocking
+        if (message == null || patterns.length == 0 || message.trim().length() <= 2) {
+            return null;
+        }
+        
+        StringBuilder normalized = normalizedMessage == null ? new StringBuilder(message.length()) : null;
+        int state = 0;
+        
+        // Current word state for the per-word check
+        int wordLength = 0;
+        int wordNormalizedLength = 0;
+        int wordNode = 0;
+        
+        for (int i = 0; i < message.length(); i++) {
+            char raw = message.charAt(i);
+            
+            if (isWordSeparator(raw)) {
+                int match = checkWord(wordLength, wordNormalizedLength, wordNode);
+                if (match >= 0) {
+                    return entries[match];
+                }
+                wordLength = 0;
+                wordNormalizedLength = 0;
+                wordNode = 0;
+                continue;
+            }
+            
+            wordLength++;
+            
+            char c = MessageUtils.normalizeChar(raw);
+            if (c == 0 && Character.isHighSurrogate(raw) && i + 1 < message.length() && Character.isLowSurrogate(message.charAt(i + 1))) {
+                c = MessageUtils.normalizeCodePoint(Character.toCodePoint(raw, message.charAt(++i)));
+            }
+            if (c == 0) {
+                continue;
+            }
+            if (normalized != null) {
+                normalized.append(c);
+            }
+            
+            // Substring check against every pattern at once
+            state = automaton.step(state, c);
+            if (automaton.match[state] >= 0) {
+                return entries[automaton.match[state]];
+            }
+            
+            if (wordNode >= 0) {
+                wordNode = factors.next(wordNode, c);
+            }
+            wordNormalizedLength++;
+        }
+        
+        int match = checkWord(wordLength, wordNormalizedLength, wordNode);
+        if (match >= 0) {
+            return entries[match];
+        }
+        
+        match = findSimilar(normalizedMessage != null ? normalizedMessage : normalized);
+        return match >= 0 ? entries[match] : null;
+    }
+    
+    /**
+     * Per-word check: a word that is part of a blocked word matches it.
+     * Returns the pattern index or -1
+     */
+    private int checkWord(int wordLength, int wordNormalizedLength, int wordNode) {
+        // Skip very short words to avoid false matches. Words that normalize to nothing
+        // ("???", "..." etc) are skipped too: every blocked word "contains" the empty word,
+        // so the old check blocked any message with one of those
+        if (wordLength <= 2 || wordNormalizedLength == 0 || wordNode < 0) {
+            return -1;
+        }
+        return factors.match[wordNode];
+    }
+    
+    /**
+     * Similarity check against patterns whose length could possibly reach the threshold.
+     * Returns the pattern index or -1
+     */
+    private int findSimilar(CharSequence normalized) {
+        int length = normalized.length();
+        if (length == 0) {
+            return -1;
+        }
+        
+        // (max - distance) / max >= 0.8 requires 0.8 * length <= patternLength <= 1.25 * length
+        int minLength = (4 * length + 4) / 5;
+        int maxLength = Math.min((5 * length) / 4, patternsByLength.length - 1);
+        
+        String message = null;
+        for (int patternLength = minLength; patternLength <= maxLength; patternLength++) {
+            for (int index : patternsByLength[patternLength]) {
+                if (message == null) {
+                    message = normalized.toString(); // No copy if it already is a String
+                }
+                if (MessageUtils.isSimilar(message, patterns[index], SIMILARITY_THRESHOLD)) {
+                    return index;
+                }
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Same separators as String.split("\\s+")
+     */
+    private static boolean isWordSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+    
+    /**
+     * Frozen trie with sorted edge arrays and optional failure links
+     */
+    private static final class Automaton {
+        
+        private final char[][] edgeChars;
+        private final int[][] edgeTargets;
+        private final int[] fail;
+        private final int[] match;
+        
+        private Automaton(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[] match) {
+            this.edgeChars = edgeChars;
+            this.edgeTargets = edgeTargets;
+            this.fail = fail;
+            this.match = match;
+        }
+        
+        /**
+         * Follow a trie edge, returns -1 if there is none
+         */
+        private int next(int node, char c) {
+            char[] chars = edgeChars[node];
+            int index = Arrays.binarySearch(chars, c);
+            return index >= 0 ? edgeTargets[node][index] : -1;
+        }
+        
+        /**
+         * Aho-Corasick transition, falling back along failure links
+         */
+        private int step(int state, char c) {
+            while (true) {
+                int target = next(state, c);
+                if (target >= 0) {
+                    return target;
+                }
+                if (state == 0) {
+                    return 0;
+                }
+                state = fail[state];
+            }
+        }
+    }
+    
+    /**
+     * Mutable trie used while compiling
+     */
+    private static final class Builder {
+        
+        private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        private final List<Integer> match = new ArrayList<>();
+        
+        private Builder() {
+            addNode();
+        }
+        
+        private int addNode() {
+            children.add(new TreeMap<>());
+            match.add(-1);
+            return children.size() - 1;
+        }
+        
+        /**
+         * Insert pattern.substring(start), marking the end node with the pattern index
+         * (or every node along the way when markPath is set)
+         */
+        private void insert(String pattern, int start, int patternIndex, boolean markPath) {
+            int node = 0;
+            for (int i = start; i < pattern.length(); i++) {
+                Integer target = children.get(node).get(pattern.charAt(i));
+                if (target == null) {
+                    target = addNode();
+                    children.get(node).put(pattern.charAt(i), target);
+                }
+                node = target;
+                
+                if (markPath && match.get(node) < 0) {
+                    match.set(node, patternIndex);
+                }
+            }
+            
+            if (match.get(node) < 0) {
+                match.set(node, patternIndex);
+            }
+        }
+        
+        private Automaton build(boolean withFailureLinks) {
+            int size = children.size();
+            char[][] edgeChars = new char[size][];
+            int[][] edgeTargets = new int[size][];
+            int[] matchArray = new int[size];
+            
+            for (int node = 0; node < size; node++) {
+                TreeMap<Character, Integer> edges = children.get(node);
+                edgeChars[node] = new char[edges.size()];
+                edgeTargets[node] = new int[edges.size()];
+                
+                int i = 0;
+                for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                    edgeChars[node][i] = edge.getKey();
+                    edgeTargets[node][i] = edge.getValue();
+                    i++;
+                }
+                
+                matchArray[node] = match.get(node);
+            }
+            
+            int[] fail = new int[size];
+            Automaton automaton = new Automaton(edgeChars, edgeTargets, fail, matchArray);
+            
+            if (withFailureLinks) {
+                // Breadth-first so a node's failure target is always resolved before it
+                ArrayDeque<Integer> queue = new ArrayDeque<>();
+                for (int child : edgeTargets[0]) {
+                    queue.add(child);
+                }
+                
+                while (!queue.isEmpty()) {
+                    int node = queue.poll();
+                    
+                    for (int i = 0; i < edgeChars[node].length; i++) {
+                        int child = edgeTargets[node][i];
+                        fail[child] = node == 0 ? 0 : automaton.step(fail[node], edgeChars[node][i]);
+                        queue.add(child);
+                    }
+                    
+                    // Inherit matches that end inside this node's suffix
+                    if (matchArray[node] < 0) {
+                        matchArray[node] = matchArray[fail[node]];
+                    }
+                }
+            }
+            
+            return automaton;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.mistasoup.chatprotect.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Case-insensitive set of command names, matched straight against a typed command
+ * line ("/msg Steve hi") without splitting or lowercasing it. Names are kept in a
+ * small open-addressing table, so a command that is not in the set costs one hash
+ * of its first word (and nothing at all if that word is longer than every name).
+ * The namespaced form ("/chatprotect:msg") matches too.
+ */
+public final class CommandLookup {
+    
+    private final String[] table; // Lowercase names, null = empty slot
+    private final int mask;
+    private final int maxLength;
+    private final String namespace; // e.g. "chatprotect:"
+    
+    private CommandLookup(Set<String> names, String namespace) {
+        int capacity = 4;
+        while (capacity < names.size() * 2) {
+            capacity <<= 1;
+        }
+        this.table = new String[capacity];
+        this.mask = capacity - 1;
+        this.namespace = namespace;
+        
+        int longest = 0;
+        for (String name : names) {
+            int slot = spread(hash(name, 0, name.length())) & mask;
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = name;
+            longest = Math.max(longest, name.length());
+        }
+        this.maxLength = longest;
+    }
+    
+    /**
+     * @param namespace prefix for the namespaced form, e.g. "chatprotect:"
+     */
+    public static CommandLookup compile(Collection<String> names, String namespace) {
+        Set<String> lowercase = new LinkedHashSet<>();
+        for (String name : names) {
+            String trimmed = name.trim().toLowerCase(Locale.ROOT);
+            if (trimmed.startsWith("/")) {
+                trimmed = trimmed.substring(1);
+            }
+            if (!trimmed.isEmpty()) {
+                lowercase.add(trimmed);
+            }
+        }
+        return new CommandLookup(lowercase, namespace.toLowerCase(Locale.ROOT));
+    }
+    
+    /**
+     * The plain lowercase name of the command a command line starts with ("/MSG Steve hi" -> "msg"),
+     * or null if it is not one of ours
+     */
+    public String match(String commandLine) {
+        int length = commandLine.length();
+        if (length < 2 || commandLine.charAt(0) != '/') {
+            return null;
+        }
+        
+        // Find the end of the first word, giving up once it can't be one of ours
+        int limit = 1 + namespace.length() + maxLength;
+        int end = 1;
+        while (end < length && commandLine.charAt(end) != ' ') {
+            if (++end > limit) {
+                return null;
+            }
+        }
+        
+        int start = 1;
+        if (end - start > namespace.length() && commandLine.regionMatches(true, start, namespace, 0, namespace.length())) {
+            start += namespace.length();
+        }
+        int nameLength = end - start;
+        if (nameLength == 0 || nameLength > maxLength) {
+            return null;
+        }
+        
+        int slot = spread(hash(commandLine, start, end)) & mask;
+        String name;
+        while ((name = table[slot]) != null) {
+            if (name.length() == nameLength && commandLine.regionMatches(true, start, name, 0, nameLength)) {
+                return name;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+    
+    // Hash of the lowercased characters, so any casing of a name lands in the same slot
+    private static int hash(String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            } else if (c >= 128) {
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            hash = 31 * hash + c;
+        }
+        return hash;
+    }
+    
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
\ No newline at end of file
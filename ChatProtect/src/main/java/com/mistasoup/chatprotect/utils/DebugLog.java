@@ -0,0 +1,120 @@
+package com.mistasoup.chatprotect.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Debug and verbose logging for the chat path.
+ *
+ * Messages are passed as suppliers and only built when their level is on (the level
+ * flags are plain volatile reads, refreshed on config load). Lines are handed to a
+ * bounded queue written out by a background thread, so a spam wave never makes a
+ * chat thread wait on console I/O - if the queue is full the line is dropped and
+ * counted instead.
+ */
+public class DebugLog {
+    
+    private static final int QUEUE_CAPACITY = 4096;
+    
+    private final Logger logger;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean debugEnabled;
+    private volatile boolean verboseEnabled;
+    private Thread writer;
+    
+    public DebugLog(Logger logger) {
+        this.logger = logger;
+    }
+    
+    public void setLevels(boolean debugEnabled, boolean verboseEnabled) {
+        this.debugEnabled = debugEnabled;
+        this.verboseEnabled = verboseEnabled;
+    }
+    
+    public boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+    
+    public boolean isVerboseEnabled() {
+        return verboseEnabled;
+    }
+    
+    /**
+     * Blocked / allowed decisions
+     */
+    public void debug(Supplier<String> message) {
+        if (debugEnabled) {
+            enqueue("[DEBUG] " + message.get());
+        }
+    }
+    
+    /**
+     * Every processing step
+     */
+    public void verbose(Supplier<String> message) {
+        if (verboseEnabled) {
+            enqueue("[VERBOSE] " + message.get());
+        }
+    }
+    
+    private void enqueue(String line) {
+        if (!queue.offer(line)) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    public synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+        writer = new Thread(this::writeLoop, "ChatProtect Log Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    /**
+     * Stop the writer thread and write out whatever is still queued
+     */
+    public synchronized void shutdown() {
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        flush();
+    }
+    
+    private void writeLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                logger.info(queue.take());
+                reportDropped();
+            }
+        } catch (InterruptedException ignored) {
+            // Shutting down, shutdown() flushes the rest
+        }
+    }
+    
+    private void flush() {
+        String line;
+        while ((line = queue.poll()) != null) {
+            logger.info(line);
+        }
+        reportDropped();
+    }
+    
+    private void reportDropped() {
+        long count = dropped.getAndSet(0L);
+        if (count > 0) {
+            logger.warning("Dropped " + count + " debug log lines (log queue full)");
+        }
+    }
+}
\ No newline at end of file
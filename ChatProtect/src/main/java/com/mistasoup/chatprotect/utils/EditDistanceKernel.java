@@ -0,0 +1,24 @@
+package com.mistasoup.chatprotect.utils;
+
+/**
+ * Edit distance kernel MessageUtils can hand long messages to.
+ * Implemented by VectorKernels, which is compiled on its own (it needs the
+ * incubating jdk.incubator.vector module) and loaded by name at runtime.
+ */
+interface EditDistanceKernel {
+    
+    /**
+     * Short description for the startup log
+     */
+    String describe();
+    
+    /**
+     * Whether this kernel beats the banded scalar one for these sizes
+     */
+    boolean isFasterThanBanded(int shorterLength, int maxDistance);
+    
+    /**
+     * Same contract as MessageUtils.levenshteinDistance(s1, s2, maxDistance)
+     */
+    int levenshteinDistance(String s1, String s2, int maxDistance);
+}
\ No newline at end of file
@@ -1,84 +1,227 @@
 package com.mistasoup.chatprotect.utils;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class MessageUtils {
     
-    // Character substitution map for leetspeak and similar variations
-    private static final Map<Character, Character> CHAR_SUBSTITUTIONS = new HashMap<>();
-    
-    static {
-        // Numbers to letters
-        CHAR_SUBSTITUTIONS.put('0', 'o');
-        CHAR_SUBSTITUTIONS.put('1', 'i');
-        CHAR_SUBSTITUTIONS.put('3', 'e');
-        CHAR_SUBSTITUTIONS.put('4', 'a');
-        CHAR_SUBSTITUTIONS.put('5', 's');
-        CHAR_SUBSTITUTIONS.put('6', 'g');
-        CHAR_SUBSTITUTIONS.put('7', 't');
-        CHAR_SUBSTITUTIONS.put('8', 'b');
-        CHAR_SUBSTITUTIONS.put('9', 'g');
-        
-        // Special characters
-        CHAR_SUBSTITUTIONS.put('@', 'a');
-        CHAR_SUBSTITUTIONS.put('$', 's');
-        CHAR_SUBSTITUTIONS.put('!', 'i');
-        CHAR_SUBSTITUTIONS.put('+', 't');
-        CHAR_SUBSTITUTIONS.put('*', 'x');
+    // Longest per-thread scratch buffer kept for reuse, longer messages (pastes) get a
+    // throwaway one so threads don't hold on to their largest message ever
+    static final int MAX_KEPT_BUFFER = 1024;
+    
+    // Reusable Levenshtein rows, one pair per thread (chat runs on many threads on Folia)
+    private static final ThreadLocal<int[][]> ROW_BUFFERS = ThreadLocal.withInitial(() -> new int[][] {
+        new int[64], new int[64]
+    });
+    
+    // Vector API edit distance for long messages, null without jdk.incubator.vector (see VectorKernels)
+    private static final EditDistanceKernel VECTOR_KERNEL = loadVectorKernel();
+    
+    // Reusable normalization output, one per thread
+    private static final ThreadLocal<char[][]> NORMALIZE_BUFFERS = ThreadLocal.withInitial(() -> new char[][] {
+        new char[256]
+    });
+    
+    /**
+     * Build the normalization table now (about 100ms, once) instead of on the first chat message
+     */
+    public static void loadTables() {
+        NormalizationTable.init();
+    }
+    
+    /**
+     * Which edit distance kernel is in use, for the startup log
+     */
+    public static String describeKernels() {
+        if (VECTOR_KERNEL != null) {
+            return "Using " + VECTOR_KERNEL.describe();
+        }
+        return "Using scalar text kernels (start the server with --add-modules=jdk.incubator.vector to enable SIMD)";
+    }
+    
+    /**
+     * Whether long messages can use the Vector API kernel
+     */
+    public static boolean hasVectorKernel() {
+        return VECTOR_KERNEL != null;
+    }
+    
+    private static EditDistanceKernel loadVectorKernel() {
+        if (!Boolean.parseBoolean(System.getProperty("chatprotect.vector", "true"))
+            || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            // By name only, so the main compile never needs the incubator module
+            Class<?> type = Class.forName(MessageUtils.class.getPackageName() + ".VectorKernels");
+            if (!(Boolean) type.getDeclaredMethod("isSupported").invoke(null)) {
+                return null; // No SIMD on this CPU, the scalar kernel is faster
+            }
+            return (EditDistanceKernel) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not built
+            return null;
+        }
     }
     
     /**
      * Normalizes a message by removing special characters, converting to lowercase,
-     * and replacing common substitutions
+     * replacing common substitutions and folding look-alike characters (see NormalizationTable)
      */
     public static String normalizeMessage(String message) {
         if (message == null || message.isEmpty()) {
             return "";
         }
         
-        StringBuilder normalized = new StringBuilder();
-        String lower = message.toLowerCase();
+        int length = message.length();
+        char[][] holder = NORMALIZE_BUFFERS.get();
+        char[] buffer = holder[0];
+        if (buffer.length < length) {
+            buffer = new char[length];
+            if (length <= MAX_KEPT_BUFFER) {
+                holder[0] = buffer;
+            }
+        }
+        char[] table = NormalizationTable.BMP;
         
-        for (char c : lower.toCharArray()) {
-            // Replace known substitutions
-            if (CHAR_SUBSTITUTIONS.containsKey(c)) {
-                normalized.append(CHAR_SUBSTITUTIONS.get(c));
-            } else if (Character.isLetterOrDigit(c)) {
-                normalized.append(c);
+        int size = 0;
+        boolean changed = false;
+        for (int i = 0; i < length; i++) {
+            char raw = message.charAt(i);
+            char c = table[raw];
+            
+            // Surrogate pair, e.g. math alphanumerics used as "fancy text"
+            if (c == 0 && Character.isHighSurrogate(raw) && i + 1 < length && Character.isLowSurrogate(message.charAt(i + 1))) {
+                c = NormalizationTable.supplementary(Character.toCodePoint(raw, message.charAt(++i)));
+                changed = true;
+            }
+            
+            if (c != 0) {
+                buffer[size++] = c;
             }
-            // Skip all other characters (spaces, punctuation, etc.)
+            // Skip all other characters (spaces, punctuation, etc.), '\0' maps to itself but is dropped too
+            changed |= c != raw || c == 0;
         }
         
-        return normalized.toString();
+        // Already normalized, no copy needed
+        return changed ? new String(buffer, 0, size) : message;
+    }
+    
+    /**
+     * Normalizes a single character the same way normalizeMessage does.
+     * Returns 0 if the character is skipped (spaces, punctuation, etc.)
+     */
+    public static char normalizeChar(char c) {
+        return NormalizationTable.BMP[c];
+    }
+    
+    /**
+     * Normalizes a full code point (e.g. a surrogate pair), 0 if it is skipped
+     */
+    public static char normalizeCodePoint(int codePoint) {
+        return codePoint <= Character.MAX_VALUE ? NormalizationTable.BMP[codePoint] : NormalizationTable.supplementary(codePoint);
     }
     
     /**
      * Calculates the Levenshtein distance between two strings
      */
     public static int levenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        return levenshteinDistance(s1, s2, Math.max(s1.length(), s2.length()));
+    }
+    
+    /**
+     * Calculates the Levenshtein distance between two strings, giving up once it
+     * exceeds maxDistance. Returns maxDistance + 1 if the distance is larger.
+     * Long strings with a wide band go to the Vector API kernel when it is available.
+     */
+    public static int levenshteinDistance(String s1, String s2, int maxDistance) {
+        if (VECTOR_KERNEL != null && VECTOR_KERNEL.isFasterThanBanded(Math.min(s1.length(), s2.length()), maxDistance)) {
+            return VECTOR_KERNEL.levenshteinDistance(s1, s2, maxDistance);
+        }
+        return scalarLevenshteinDistance(s1, s2, maxDistance);
+    }
+    
+    /**
+     * Same as levenshteinDistance(s1, s2, maxDistance), always with the Vector API kernel
+     * (benchmarks and tests). Throws IllegalStateException if it isn't available.
+     */
+    public static int vectorLevenshteinDistance(String s1, String s2, int maxDistance) {
+        if (VECTOR_KERNEL == null) {
+            throw new IllegalStateException("Vector API kernel not available, run with --add-modules=jdk.incubator.vector");
+        }
+        return VECTOR_KERNEL.levenshteinDistance(s1, s2, maxDistance);
+    }
+    
+    /**
+     * Same as levenshteinDistance(s1, s2, maxDistance), always with the scalar kernel.
+     * Only the diagonal band of width 2 * maxDistance + 1 is computed, using two
+     * reusable rows instead of a full matrix.
+     */
+    public static int scalarLevenshteinDistance(String s1, String s2, int maxDistance) {
+        int length1 = s1.length();
+        int length2 = s2.length();
+        int outOfRange = maxDistance + 1;
         
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
+        // The length difference alone is a lower bound for the distance
+        if (maxDistance < 0 || Math.abs(length1 - length2) > maxDistance) {
+            return outOfRange;
+        }
+        if (length1 == 0 || length2 == 0) {
+            return Math.max(length1, length2);
         }
         
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
+        int[][] rows = ROW_BUFFERS.get();
+        if (rows[0].length <= length2 + 1) {
+            if (length2 + 2 > MAX_KEPT_BUFFER) {
+                rows = new int[][] {new int[length2 + 2], new int[length2 + 2]};
+            } else {
+                rows[0] = new int[length2 + 2];
+                rows[1] = new int[length2 + 2];
+            }
         }
+        int[] previous = rows[0];
+        int[] current = rows[1];
         
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
-                dp[i][j] = Math.min(
-                    Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                    dp[i - 1][j - 1] + cost
+        int initialized = Math.min(length2, maxDistance + 1);
+        for (int j = 0; j <= initialized; j++) {
+            previous[j] = Math.min(j, outOfRange);
+        }
+        
+        for (int i = 1; i <= length1; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(length2, i + maxDistance);
+            char c1 = s1.charAt(i - 1);
+            
+            current[0] = Math.min(i, outOfRange);
+            current[from - 1] = from == 1 ? current[0] : outOfRange;
+            int rowMinimum = current[from - 1];
+            
+            for (int j = from; j <= to; j++) {
+                int cost = c1 == s2.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(
+                    Math.min(previous[j] + 1, current[j - 1] + 1),
+                    previous[j - 1] + cost
                 );
+                value = Math.min(value, outOfRange);
+                current[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            
+            // Cell right of the band is read by the next row
+            if (to < length2) {
+                current[to + 1] = outOfRange;
+            }
+            
+            // Every path through this row already costs too much
+            if (rowMinimum > maxDistance) {
+                return outOfRange;
             }
+            
+            int[] swap = previous;
+            previous = current;
+            current = swap;
         }
         
-        return dp[s1.length()][s2.length()];
+        return previous[length2];
     }
     
     /**
@@ -99,49 +242,62 @@ public class MessageUtils {
         }
         
         int distance = levenshteinDistance(s1, s2);
-        return ((maxLength - distance) / (double) maxLength) * 100.0;
+        return similarityPercent(maxLength, distance);
     }
     
     /**
-     * Checks if a message is similar to any blocked word
+     * Checks if two strings are at least threshold percent similar (0-100).
+     * Same result as calculateSimilarity(s1, s2) >= threshold, but stops as soon as
+     * the answer is known instead of computing the exact score.
      */
-    public static boolean containsBlockedWord(String message, List<String> blockedWords) {
-        // Allow very short messages to pass without blocking
-        if (message.trim().length() <= 2) {
+    public static boolean isSimilar(String s1, String s2, double threshold) {
+        if (s1 == null || s2 == null || s1.isEmpty() || s2.isEmpty()) {
+            return 0.0 >= threshold;
+        }
+        
+        int maxLength = Math.max(s1.length(), s2.length());
+        int maxDistance = maxDistanceFor(maxLength, threshold);
+        
+        // Length difference alone rules out a match
+        if (maxDistance < 0 || Math.abs(s1.length() - s2.length()) > maxDistance) {
             return false;
         }
         
-        String normalized = normalizeMessage(message);
+        if (s1.length() == s2.length() && s1.hashCode() == s2.hashCode() && s1.equals(s2)) {
+            return true;
+        }
         
-        for (String blockedWord : blockedWords) {
-            String normalizedBlocked = normalizeMessage(blockedWord);
-            
-            // Check if the normalized message contains the blocked word
-            if (normalized.contains(normalizedBlocked)) {
-                return true;
-            }
-            
-            // Check for high similarity (catches variations)
-            if (calculateSimilarity(normalized, normalizedBlocked) >= 80) {
-                return true;
-            }
-            
-            // Check if any word in the message is similar to the blocked word
-            String[] words = message.toLowerCase().split("\\s+");
-            for (String word : words) {
-                // Skip very short words to avoid false matches
-                if (word.trim().length() <= 2) {
-                    continue;
-                }
-                
-                String normalizedWord = normalizeMessage(word);
-                if (normalizedWord.contains(normalizedBlocked) || 
-                    normalizedBlocked.contains(normalizedWord)) {
-                    return true;
-                }
-            }
+        return levenshteinDistance(s1, s2, maxDistance) <= maxDistance;
+    }
+    
+    /**
+     * Largest edit distance that still reaches the similarity threshold, or -1 if none does
+     */
+    private static int maxDistanceFor(int maxLength, double threshold) {
+        int distance = (int) Math.floor(maxLength * (100.0 - threshold) / 100.0);
+        distance = Math.max(-1, Math.min(maxLength, distance));
+        
+        // Correct floating point rounding so the result matches calculateSimilarity exactly
+        while (distance >= 0 && similarityPercent(maxLength, distance) < threshold) {
+            distance--;
+        }
+        while (distance < maxLength && similarityPercent(maxLength, distance + 1) >= threshold) {
+            distance++;
         }
         
-        return false;
+        return distance;
+    }
+    
+    private static double similarityPercent(int maxLength, int distance) {
+        return ((maxLength - distance) / (double) maxLength) * 100.0;
+    }
+    
+    /**
+     * Checks if a message is similar to any blocked word.
+     * This compiles the word list on every call - use a {@link BlockedWordMatcher}
+     * compiled once up front on the chat path.
+     */
+    public static boolean containsBlockedWord(String message, List<String> blockedWords) {
+        return BlockedWordMatcher.compile(blockedWords).findMatch(message) != null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package com.mistasoup.chatprotect.utils;
+
+import java.text.Normalizer;
+
+/**
+ * What every character becomes in a normalized message, precomputed for the whole
+ * BMP (plus the "fancy text" letter blocks above it) so normalizing is one array
+ * read per character.
+ *
+ * A character is folded in this order:
+ * - look-alikes from other scripts (Cyrillic, Greek, small caps) become the Latin letter
+ * - compatibility forms and accents are stripped (full-width, circled, é -> e)
+ * - letters are lowercased, leetspeak digits and symbols are substituted
+ * - anything that isn't a letter or digit is dropped (0), including zero-width and
+ *   other invisible characters
+ */
+final class NormalizationTable {
+    
+    // Pairs of (look-alike, Latin letter)
+    private static final String CONFUSABLES =
+        // Cyrillic (uppercase is lowercased first)
+        "\u0430a\u04316\u0432b\u0433r\u0435e\u0451e\u043ak\u043cm\u043dh\u043eo\u043fn\u0440p\u0441c\u0442t"
+        + "\u0443y\u0445x\u0455s\u0456i\u0457i\u0458j\u04bbh\u0501d\u051bq\u051dw\u044cb\u0461w\u04afy"
+        // Greek uppercase, where the lowercase letter looks like something else (H / n)
+        + "\u0391a\u0392b\u0395e\u0396z\u0397h\u0399i\u039ak\u039cm\u039dn\u039fo\u03a1p\u03a4t\u03a5y\u03a7x"
+        // Greek lowercase
+        + "\u03b1a\u03b2b\u03b3y\u03b5e\u03b7n\u03b9i\u03bak\u03bcu\u03bdv\u03bfo\u03c1p\u03c4t\u03c5u\u03c7x"
+        + "\u03c9w\u03f2c\u03f3j"
+        // Latin look-alikes and small caps
+        + "\u0131i\u0237j\u0251a\u0261g\u0269i\u028bu\u017fs\u0185b\u0262g\u029ch\u026ai\u029fl\u0274n\u0280r"
+        + "\u028fy\u01ebq\u1d00a\u0299b\u1d04c\u1d05d\u1d07e\ua730f\u1d0aj\u1d0bk\u1d0dm\u1d0fo\u1d18p\ua731s"
+        + "\u1d1bt\u1d1cu\u1d20v\u1d21w\u1d22z";
+    
+    // Letters that render as nothing (Hangul fillers), dropped like spaces
+    private static final String INVISIBLE_LETTERS = "\u115f\u1160\u3164\uffa0";
+    
+    // Supplementary blocks with letter look-alikes: math alphanumerics and enclosed letters / flags
+    private static final int MATH_START = 0x1D400;
+    private static final int MATH_END = 0x1D7FF;
+    private static final int ENCLOSED_START = 0x1F100;
+    private static final int ENCLOSED_END = 0x1F1FF;
+    
+    static final char[] BMP = new char[0x10000];
+    private static final char[] MATH = new char[MATH_END - MATH_START + 1];
+    private static final char[] ENCLOSED = new char[ENCLOSED_END - ENCLOSED_START + 1];
+    
+    static {
+        char[] confusables = new char[0x10000];
+        for (int i = 0; i < CONFUSABLES.length(); i += 2) {
+            confusables[CONFUSABLES.charAt(i)] = CONFUSABLES.charAt(i + 1);
+        }
+        
+        for (int c = 0; c < BMP.length; c++) {
+            BMP[c] = fold(c, confusables);
+        }
+        for (int i = 0; i < INVISIBLE_LETTERS.length(); i++) {
+            BMP[INVISIBLE_LETTERS.charAt(i)] = 0;
+        }
+        
+        for (int i = 0; i < MATH.length; i++) {
+            MATH[i] = fold(MATH_START + i, confusables);
+        }
+        for (int i = 0; i < ENCLOSED.length; i++) {
+            int codePoint = ENCLOSED_START + i;
+            // Negative circled / squared letters and regional indicators have no decomposition
+            if (codePoint >= 0x1F150 && codePoint <= 0x1F169) {
+                ENCLOSED[i] = (char) ('a' + codePoint - 0x1F150);
+            } else if (codePoint >= 0x1F170 && codePoint <= 0x1F189) {
+                ENCLOSED[i] = (char) ('a' + codePoint - 0x1F170);
+            } else if (codePoint >= 0x1F1E6) {
+                ENCLOSED[i] = (char) ('a' + codePoint - 0x1F1E6);
+            } else {
+                ENCLOSED[i] = fold(codePoint, confusables);
+            }
+        }
+    }
+    
+    private NormalizationTable() {
+    }
+    
+    /**
+     * Does nothing, calling it runs the static initializer above (builds the tables)
+     */
+    static void init() {
+    }
+    
+    /**
+     * Normalized form of a code point above the BMP, 0 if it is dropped
+     */
+    static char supplementary(int codePoint) {
+        if (codePoint >= MATH_START && codePoint <= MATH_END) {
+            return MATH[codePoint - MATH_START];
+        }
+        if (codePoint >= ENCLOSED_START && codePoint <= ENCLOSED_END) {
+            return ENCLOSED[codePoint - ENCLOSED_START];
+        }
+        return 0;
+    }
+    
+    private static char fold(int codePoint, char[] confusables) {
+        if (codePoint >= 0xD800 && codePoint <= 0xDFFF) {
+            return 0; // Lone surrogate halves, pairs are looked up by code point
+        }
+        
+        if (codePoint < confusables.length && confusables[codePoint] != 0) {
+            return ascii(confusables[codePoint]);
+        }
+        int lower = Character.toLowerCase(codePoint);
+        if (lower < confusables.length && confusables[lower] != 0) {
+            return ascii(confusables[lower]);
+        }
+        if (lower < 0x80) {
+            return ascii((char) lower);
+        }
+        
+        if (!mayDecompose(codePoint)) {
+            return lower <= 0xFFFF && Character.isLetterOrDigit(lower) ? (char) lower : 0;
+        }
+        
+        // Compatibility decomposition minus combining marks: full-width, circled, math letters, accents
+        String decomposed = Normalizer.normalize(new String(Character.toChars(codePoint)), Normalizer.Form.NFKD);
+        int base = -1;
+        for (int i = 0; i < decomposed.length(); ) {
+            int part = decomposed.codePointAt(i);
+            i += Character.charCount(part);
+            if (Character.getType(part) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (base >= 0) {
+                base = -1; // Expands to several characters (e.g. ligatures), keep the original
+                break;
+            }
+            base = part;
+        }
+        if (base >= 0 && base != codePoint) {
+            return fold(base, confusables);
+        }
+        
+        return lower <= 0xFFFF && Character.isLetterOrDigit(lower) ? (char) lower : 0;
+    }
+    
+    /**
+     * Blocks with compatibility decompositions worth folding. Skips CJK, Hangul, Yi and
+     * private use (most of the BMP, none of it looks like Latin), which keeps building
+     * the table cheap.
+     */
+    private static boolean mayDecompose(int codePoint) {
+        return codePoint < 0x3400 || (codePoint >= 0xF900 && codePoint <= 0xFFEF) || codePoint > 0xFFFF;
+    }
+    
+    /**
+     * Lowercase ASCII letters and digits, with leetspeak substitutions
+     */
+    private static char ascii(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        switch (c) {
+            // Numbers to letters
+            case '0': return 'o';
+            case '1': return 'i';
+            case '3': return 'e';
+            case '4': return 'a';
+            case '5': return 's';
+            case '6': return 'g';
+            case '7': return 't';
+            case '8': return 'b';
+            case '9': return 'g';
+            // Special characters
+            case '@': return 'a';
+            case '$': return 's';
+            case '!': return 'i';
+            case '+': return 't';
+            case '*': return 'x';
+            default:
+                return Character.isLetterOrDigit(c) ? c : 0;
+        }
+    }
+}
\ No newline at end of file
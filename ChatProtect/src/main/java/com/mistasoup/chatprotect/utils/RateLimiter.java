@@ -0,0 +1,79 @@
+package com.mistasoup.chatprotect.utils;
+
+/**
+ * Sliding window event counter backed by a fixed ring of primitive timestamps.
+ * Only the newest limit + 1 events are kept, which is all that is needed to tell
+ * whether more than limit events happened inside the window, so recording an
+ * event never allocates.
+ *
+ * Not thread-safe, callers synchronize (e.g. on the owning PlayerData).
+ */
+public class RateLimiter {
+    
+    private final int limit;
+    private final long[] timestamps;
+    private int head; // Index of the oldest timestamp
+    private int size;
+    
+    /**
+     * @param limit number of events allowed inside the window
+     */
+    public RateLimiter(int limit) {
+        this.limit = Math.max(0, limit);
+        this.timestamps = new long[this.limit + 1];
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    /**
+     * Record an event at the given time
+     * Returns true if more than limit events (including this one) happened within the window
+     */
+    public boolean record(long now, long windowMillis) {
+        expire(now - windowMillis);
+        
+        // Ring is full - the oldest event no longer matters
+        if (size == timestamps.length) {
+            head = (head + 1) % timestamps.length;
+            size--;
+        }
+        
+        timestamps[(head + size) % timestamps.length] = now;
+        size++;
+        
+        return size > limit;
+    }
+    
+    /**
+     * Number of tracked events within the window (capped at limit + 1)
+     */
+    public int count(long now, long windowMillis) {
+        expire(now - windowMillis);
+        return size;
+    }
+    
+    /**
+     * Number of tracked events as of the last record/count call
+     */
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+    
+    private void expire(long cutoffTime) {
+        while (size > 0 && timestamps[head] < cutoffTime) {
+            head = (head + 1) % timestamps.length;
+            size--;
+        }
+    }
+}
\ No newline at end of file
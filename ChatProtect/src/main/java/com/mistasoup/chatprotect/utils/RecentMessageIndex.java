@@ -0,0 +1,122 @@
+package com.mistasoup.chatprotect.utils;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Server-wide sliding window of recent message fingerprints (see SimHash).
+ *
+ * Each fingerprint is filed under its eight 8-bit bands. Two fingerprints that
+ * differ in at most 7 bits always agree on at least one band, so a lookup only
+ * scans the eight matching buckets (about 1/32 of the window) instead of every
+ * recent message. Entries leave in arrival order once they fall out of the window,
+ * which also empties the buckets, so memory stays bounded by the chat rate.
+ */
+public class RecentMessageIndex {
+    
+    public static final int MAX_DISTANCE = 7; // Largest distance the banding is guaranteed to find
+    
+    private static final int BANDS = 8;
+    private static final int BAND_BITS = 8;
+    private static final long BAND_MASK = (1L << BAND_BITS) - 1;
+    
+    private final int maxEntries;
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>(); // Oldest first
+    private final Map<Long, ArrayDeque<Entry>> buckets = new HashMap<>();
+    
+    public RecentMessageIndex(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Add a message, then return every sender (this one included) of a message at most
+     * maxDistance bits away within the window. Stops looking once limit senders are found.
+     */
+    public synchronized Set<UUID> addAndFindSenders(UUID sender, long fingerprint, long now, long windowMillis,
+                                                    int maxDistance, int limit) {
+        expire(now - windowMillis);
+        
+        Set<UUID> senders = new LinkedHashSet<>();
+        senders.add(sender);
+        int distance = Math.min(maxDistance, MAX_DISTANCE);
+        
+        for (int band = 0; band < BANDS && senders.size() < limit; band++) {
+            ArrayDeque<Entry> bucket = buckets.get(bucketKey(fingerprint, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (Entry entry : bucket) {
+                if (SimHash.distance(entry.fingerprint, fingerprint) <= distance && senders.add(entry.sender)
+                    && senders.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        
+        Entry entry = new Entry(sender, fingerprint, now);
+        entries.addLast(entry);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bucketKey(fingerprint, band), key -> new ArrayDeque<>()).addLast(entry);
+        }
+        while (entries.size() > maxEntries) {
+            remove(entries.pollFirst());
+        }
+        
+        return senders;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        buckets.clear();
+    }
+    
+    private void expire(long cutoff) {
+        while (!entries.isEmpty() && entries.peekFirst().time < cutoff) {
+            remove(entries.pollFirst());
+        }
+    }
+    
+    private void remove(Entry entry) {
+        for (int band = 0; band < BANDS; band++) {
+            long key = bucketKey(entry.fingerprint, band);
+            ArrayDeque<Entry> bucket = buckets.get(key);
+            if (bucket == null) {
+                continue;
+            }
+            // Buckets fill in the same order as entries, so this is almost always the head
+            if (bucket.peekFirst() == entry) {
+                bucket.pollFirst();
+            } else {
+                bucket.remove(entry);
+            }
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+    
+    private static long bucketKey(long fingerprint, int band) {
+        return ((long) band << BAND_BITS) | ((fingerprint >>> (band * BAND_BITS)) & BAND_MASK);
+    }
+    
+    private static final class Entry {
+        
+        private final UUID sender;
+        private final long fingerprint;
+        private final long time;
+        
+        private Entry(UUID sender, long fingerprint, long time) {
+            this.sender = sender;
+            this.fingerprint = fingerprint;
+            this.time = time;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.mistasoup.chatprotect.utils;
+
+/**
+ * 64-bit SimHash fingerprints of normalized messages.
+ *
+ * Every 3-character shingle votes on each of the 64 bits, so two messages that
+ * share most of their shingles end up with fingerprints that differ in only a
+ * few bits, while unrelated messages differ in about half of them.
+ */
+public final class SimHash {
+    
+    private static final int SHINGLE = 3;
+    
+    private SimHash() {
+    }
+    
+    public static long of(String normalized) {
+        int length = normalized.length();
+        if (length <= SHINGLE) {
+            return mix(normalized.hashCode());
+        }
+        
+        int[] votes = new int[64];
+        for (int i = 0; i + SHINGLE <= length; i++) {
+            long hash = mix(((long) normalized.charAt(i) << 32)
+                | ((long) normalized.charAt(i + 1) << 16)
+                | normalized.charAt(i + 2));
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += (int) ((hash >>> bit) & 1L) * 2 - 1;
+            }
+        }
+        
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+    
+    /**
+     * Number of bits two fingerprints differ in
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+    
+    // MurmurHash3 finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,277 @@
+package com.mistasoup.chatprotect.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for expiring things at a fixed time.
+ *
+ * Four levels of 64 slots each: level 0 holds timeouts due within the next 64 ticks,
+ * level 1 within 64^2 ticks and so on, anything further out waits in an overflow list.
+ * Whenever a lower level wraps around, the matching slot of the level above is emptied
+ * back down, so each timeout is moved at most once per level. Scheduling and cancelling
+ * are O(1) and an advance only touches the slots that are actually due.
+ *
+ * schedule() and Timeout.cancel() are safe from any thread, they are queued and applied
+ * by advance(), which must only run on one thread at a time.
+ */
+public class TimerWheel {
+    
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = 1L << (WHEEL_BITS * LEVELS);
+    
+    private final long tickMillis;
+    private final Consumer<RuntimeException> errorHandler;
+    private final Timeout[] slots; // LEVELS * WHEEL_SIZE sentinels of circular lists
+    private final Timeout overflow;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private long currentTick;
+    
+    /**
+     * @param errorHandler gets anything thrown by a task, so one bad task can't stall the wheel
+     */
+    public TimerWheel(long tickMillis, long startMillis, Consumer<RuntimeException> errorHandler) {
+        this.tickMillis = tickMillis;
+        this.errorHandler = errorHandler;
+        this.currentTick = startMillis / tickMillis;
+        this.slots = new Timeout[LEVELS * WHEEL_SIZE];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = Timeout.sentinel();
+        }
+        this.overflow = Timeout.sentinel();
+    }
+    
+    /**
+     * Run task once the clock passed to advance() reaches deadlineMillis
+     */
+    public Timeout schedule(long deadlineMillis, Consumer<Timeout> task) {
+        // Round up, a timeout never fires early
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timeout timeout = new Timeout(this, deadlineTick, task);
+        size.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+    
+    /**
+     * Number of scheduled timeouts that have neither fired nor been cancelled
+     */
+    public int size() {
+        return size.get();
+    }
+    
+    /**
+     * Move the wheel forward to nowMillis, running every task that is due
+     */
+    public synchronized void advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<Timeout> due = new ArrayList<>();
+        
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            timeout.unlink();
+        }
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.state.get() != Timeout.CANCELLED) {
+                if (timeout.deadlineTick <= currentTick) {
+                    due.add(timeout);
+                } else {
+                    insert(timeout);
+                }
+            }
+        }
+        
+        while (currentTick < targetTick) {
+            currentTick++;
+            
+            int index = (int) (currentTick & WHEEL_MASK);
+            if (index == 0) {
+                cascade();
+            }
+            drain(slots[index], due);
+        }
+        
+        for (Timeout expired : due) {
+            expired.fire();
+        }
+    }
+    
+    /**
+     * Drop every timeout without running it
+     */
+    public synchronized void clear() {
+        pendingTimeouts.clear();
+        cancelledTimeouts.clear();
+        for (Timeout sentinel : slots) {
+            sentinel.next = sentinel;
+            sentinel.prev = sentinel;
+        }
+        overflow.next = overflow;
+        overflow.prev = overflow;
+        size.set(0);
+    }
+    
+    private void insert(Timeout timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        
+        if (delta >= MAX_DELTA) {
+            overflow.append(timeout);
+            return;
+        }
+        
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        // Level 0 (or a timeout that is already due while cascading) lands in the current slot
+        long tick = Math.max(timeout.deadlineTick, currentTick);
+        int index = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        slots[level * WHEEL_SIZE + index].append(timeout);
+    }
+    
+    /**
+     * Level 0 wrapped: empty the due slot of level 1 into level 0, and so on upwards
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            reinsert(slots[level * WHEEL_SIZE + index]);
+            
+            if (level == LEVELS - 1) {
+                // The top level moved on a slot, pull in whatever is now within range
+                reinsert(overflow);
+            }
+            if (index != 0) {
+                return;
+            }
+        }
+    }
+    
+    private void reinsert(Timeout sentinel) {
+        Timeout timeout = sentinel.detachAll();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            if (timeout.state.get() != Timeout.CANCELLED) {
+                insert(timeout);
+            }
+            timeout = next;
+        }
+    }
+    
+    private void drain(Timeout sentinel, List<Timeout> due) {
+        Timeout timeout = sentinel.detachAll();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            due.add(timeout);
+            timeout = next;
+        }
+    }
+    
+    /**
+     * Handle for a scheduled task
+     */
+    public static final class Timeout {
+        
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int FIRED = 2;
+        
+        private final TimerWheel wheel;
+        private final long deadlineTick;
+        private final Consumer<Timeout> task;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        
+        // Slot list links, only touched by the thread running advance()
+        private Timeout prev;
+        private Timeout next;
+        
+        private Timeout(TimerWheel wheel, long deadlineTick, Consumer<Timeout> task) {
+            this.wheel = wheel;
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+        
+        private static Timeout sentinel() {
+            Timeout sentinel = new Timeout(null, 0L, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+        
+        /**
+         * Stop the task from running. Returns false if it already ran or was cancelled.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            wheel.size.decrementAndGet();
+            // Unlinked on the next advance so the slot lets go of it right away
+            wheel.cancelledTimeouts.add(this);
+            return true;
+        }
+        
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+        
+        public boolean isExpired() {
+            return state.get() == FIRED;
+        }
+        
+        private void fire() {
+            if (!state.compareAndSet(WAITING, FIRED)) {
+                return;
+            }
+            wheel.size.decrementAndGet();
+            try {
+                task.accept(this);
+            } catch (RuntimeException e) {
+                wheel.errorHandler.accept(e);
+            }
+        }
+        
+        private void append(Timeout timeout) {
+            timeout.prev = prev;
+            timeout.next = this;
+            prev.next = timeout;
+            prev = timeout;
+        }
+        
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+        
+        /**
+         * Take every node out of this sentinel's list, returned as a null-terminated chain
+         */
+        private Timeout detachAll() {
+            if (next == this) {
+                return null;
+            }
+            Timeout first = next;
+            prev.next = null;
+            next = this;
+            prev = this;
+            return first;
+        }
+    }
+}
\ No newline at end of file
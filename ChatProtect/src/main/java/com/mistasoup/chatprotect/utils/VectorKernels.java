@@ -0,0 +1,150 @@
+package com.mistasoup.chatprotect.utils;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API (SIMD) versions of the MessageUtils kernels that pay off on long messages.
+ * Compiled in its own step (see pom.xml) and only loaded by MessageUtils when the
+ * server runs with --add-modules=jdk.incubator.vector, nothing refers to it directly.
+ */
+final class VectorKernels implements EditDistanceKernel {
+    
+    static final int MIN_LENGTH = 96; // Shorter strings are faster with the scalar banded kernel
+    static final int MIN_LANES = 4; // Fewer lanes (no SIMD on this CPU) are slower than scalar
+    
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    
+    // Reusable arrays, one set per thread: both strings as ints, then three anti-diagonals
+    private static final ThreadLocal<int[][]> BUFFERS = ThreadLocal.withInitial(() -> new int[5][0]);
+    
+    /**
+     * Whether this CPU has enough int lanes for the kernel to pay off, checked before constructing it
+     */
+    static boolean isSupported() {
+        return SPECIES.length() >= MIN_LANES;
+    }
+    
+    @Override
+    public String describe() {
+        return "Vector API text kernels (" + SPECIES.length() + " int lanes)";
+    }
+    
+    /**
+     * This kernel computes every cell of the matrix, but a whole vector at a time,
+     * while the scalar one only computes a band of 2 * maxDistance + 1 cells per row.
+     * So it wins once the band is wide compared to the string.
+     */
+    @Override
+    public boolean isFasterThanBanded(int shorterLength, int maxDistance) {
+        return shorterLength >= MIN_LENGTH && (2L * maxDistance + 1) * SPECIES.length() >= 5L * shorterLength;
+    }
+    
+    /**
+     * Levenshtein distance, giving up once it exceeds maxDistance (returns maxDistance + 1),
+     * same contract as MessageUtils.levenshteinDistance.
+     *
+     * The matrix is filled one anti-diagonal (i + j = d) at a time. Every cell of an
+     * anti-diagonal only depends on the two anti-diagonals before it, so a whole vector
+     * of cells is computed at once. The second string is reversed so that both strings
+     * are read forwards along a diagonal.
+     */
+    @Override
+    public int levenshteinDistance(String s1, String s2, int maxDistance) {
+        int length1 = s1.length();
+        int length2 = s2.length();
+        int outOfRange = maxDistance + 1;
+        
+        if (maxDistance < 0 || Math.abs(length1 - length2) > maxDistance) {
+            return outOfRange;
+        }
+        if (length1 == 0 || length2 == 0) {
+            return Math.max(length1, length2);
+        }
+        
+        int[][] buffers = BUFFERS.get();
+        if (buffers[0].length < length1 || buffers[1].length < length2 || buffers[2].length <= length1) {
+            int size = Math.max(length1, length2) + 1;
+            // Past the cap the arrays are used for this call only (see MessageUtils.MAX_KEPT_BUFFER)
+            if (size > MessageUtils.MAX_KEPT_BUFFER) {
+                buffers = new int[buffers.length][];
+            }
+            for (int k = 0; k < buffers.length; k++) {
+                buffers[k] = new int[size];
+            }
+        }
+        int[] chars1 = buffers[0];
+        int[] reversed2 = buffers[1];
+        for (int i = 0; i < length1; i++) {
+            chars1[i] = s1.charAt(i);
+        }
+        for (int j = 0; j < length2; j++) {
+            reversed2[j] = s2.charAt(length2 - 1 - j);
+        }
+        
+        // Anti-diagonals indexed by row i: d - 2, d - 1 and the one being filled
+        int[] beforePrevious = buffers[2];
+        int[] previous = buffers[3];
+        int[] current = buffers[4];
+        previous[0] = 0;
+        
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        IntVector limit = IntVector.broadcast(SPECIES, outOfRange);
+        int lanes = SPECIES.length();
+        int previousMinimum = 0;
+        
+        for (int d = 1; d <= length1 + length2; d++) {
+            int first = Math.max(0, d - length2);
+            int last = Math.min(length1, d);
+            int minimum = Integer.MAX_VALUE;
+            
+            // First row / first column cells
+            int i = first;
+            if (i == 0) {
+                current[0] = Math.min(d, outOfRange);
+                minimum = current[0];
+                i = 1;
+            }
+            int interiorLast = last == d ? last - 1 : last;
+            
+            // cell(i, j) = min(cell(i - 1, j) + 1, cell(i, j - 1) + 1, cell(i - 1, j - 1) + cost), j = d - i
+            int offset2 = length2 - d; // s2.charAt(j - 1) == reversed2[offset2 + i]
+            for (; i + lanes - 1 <= interiorLast; i += lanes) {
+                IntVector up = IntVector.fromArray(SPECIES, previous, i - 1).add(one);
+                IntVector left = IntVector.fromArray(SPECIES, previous, i).add(one);
+                IntVector c1 = IntVector.fromArray(SPECIES, chars1, i - 1);
+                IntVector c2 = IntVector.fromArray(SPECIES, reversed2, offset2 + i);
+                IntVector diagonal = IntVector.fromArray(SPECIES, beforePrevious, i - 1)
+                    .add(one, c1.compare(VectorOperators.NE, c2));
+                IntVector cells = up.min(left).min(diagonal).min(limit);
+                cells.intoArray(current, i);
+                minimum = Math.min(minimum, cells.reduceLanes(VectorOperators.MIN));
+            }
+            for (; i <= interiorLast; i++) {
+                int cost = chars1[i - 1] == reversed2[offset2 + i] ? 0 : 1;
+                int value = Math.min(Math.min(previous[i - 1] + 1, previous[i] + 1), beforePrevious[i - 1] + cost);
+                value = Math.min(value, outOfRange);
+                current[i] = value;
+                minimum = Math.min(minimum, value);
+            }
+            if (last == d) {
+                current[d] = Math.min(d, outOfRange);
+                minimum = Math.min(minimum, current[d]);
+            }
+            
+            // Later anti-diagonals can't get below the smaller of the last two
+            if (minimum > maxDistance && previousMinimum > maxDistance) {
+                return outOfRange;
+            }
+            previousMinimum = minimum;
+            
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        
+        return previous[length1];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+package com.mistasoup.chatprotect.managers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ModerationExecutorTest {
+    
+    private static final UUID PLAYER = new UUID(0L, 1L);
+    private static final UUID OTHER = new UUID(0L, 2L);
+    
+    private ConfigSnapshot config;
+    private MetricsManager metrics;
+    private ModerationExecutor executor;
+    
+    @BeforeEach
+    void start() {
+        ChatProtect plugin = mock(ChatProtect.class);
+        ConfigManager configManager = mock(ConfigManager.class);
+        config = mock(ConfigSnapshot.class);
+        metrics = mock(MetricsManager.class);
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        when(plugin.getMetricsManager()).thenReturn(metrics);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("ModerationExecutorTest"));
+        when(configManager.getSnapshot()).thenReturn(config);
+        when(config.getModerationThreads()).thenReturn(2);
+        when(config.getModerationMaxQueued()).thenReturn(100);
+        
+        executor = new ModerationExecutor(plugin);
+        executor.start();
+        assertTrue(executor.isRunning());
+    }
+    
+    @AfterEach
+    void stop() {
+        executor.shutdown();
+    }
+    
+    @Test
+    void keepsEachPlayersOrderAcrossTurns() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> player = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> other = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2 * 50);
+        
+        // Everything is queued before the first task can finish, so drain() has to requeue itself
+        executor.submit(PLAYER, () -> await(release));
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            executor.submit(PLAYER, () -> {
+                player.add(index);
+                done.countDown();
+            });
+            executor.submit(OTHER, () -> {
+                other.add(index);
+                done.countDown();
+            });
+        }
+        release.countDown();
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(range(50), player);
+        assertEquals(range(50), other);
+        verify(metrics, atLeastOnce()).recordModerationWait(anyLong());
+    }
+    
+    @Test
+    void dropsWhenQueueIsFull() throws InterruptedException {
+        when(config.getModerationMaxQueued()).thenReturn(3);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        assertTrue(executor.submit(PLAYER, () -> {
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        
+        // The running task has left the queue, three more fit
+        for (int i = 0; i < 3; i++) {
+            assertTrue(executor.submit(PLAYER, () -> { }));
+        }
+        assertFalse(executor.submit(PLAYER, () -> { }));
+        assertFalse(executor.submit(PLAYER, () -> { }));
+        assertTrue(executor.submit(OTHER, () -> { }));
+        release.countDown();
+        
+        verify(metrics, times(2)).recordModerationDrop();
+    }
+    
+    @Test
+    void queueIsDroppedAfterQuitOnceDrained() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.submit(PLAYER, () -> await(release));
+        executor.submit(PLAYER, done::countDown);
+        
+        executor.remove(PLAYER);
+        assertEquals(1, executor.getQueueCount()); // Still has messages to check
+        release.countDown();
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        awaitQueueCount(0);
+    }
+    
+    @Test
+    void rejoinWhileDrainingKeepsOneLiveQueue() throws InterruptedException {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        for (int round = 0; round < 200; round++) {
+            order.clear();
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(1);
+            
+            executor.submit(PLAYER, () -> {
+                await(release);
+                order.add("before");
+            });
+            executor.remove(PLAYER); // Quit while their message is being checked
+            executor.submit(PLAYER, () -> order.add("after")); // and back
+            release.countDown();
+            executor.submit(PLAYER, () -> {
+                order.add("last");
+                done.countDown();
+            });
+            
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("before", "after", "last"), order);
+            // Not retired any more: the queue stays until they quit again
+            assertEquals(1, executor.getQueueCount());
+            
+            executor.remove(PLAYER);
+            awaitQueueCount(0);
+        }
+    }
+    
+    @Test
+    void runAfterQueuedWaitsForPendingMessages() throws InterruptedException {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        when(config.getModerationMaxQueued()).thenReturn(1);
+        
+        executor.submit(PLAYER, () -> {
+            started.countDown();
+            await(release);
+            order.add("message");
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(executor.submit(PLAYER, () -> order.add("queued")));
+        // Never dropped, even with the queue full
+        executor.runAfterQueued(PLAYER, () -> {
+            order.add("cleanup");
+            done.countDown();
+        });
+        executor.remove(PLAYER);
+        release.countDown();
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("message", "queued", "cleanup"), order);
+        awaitQueueCount(0);
+        
+        // Nothing queued: runs right away
+        executor.runAfterQueued(OTHER, () -> order.add("inline"));
+        assertEquals("inline", order.get(order.size() - 1));
+    }
+    
+    @Test
+    void shutdownFinishesQueuedAndRunsLateTasksInline() throws InterruptedException {
+        List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(PLAYER, () -> {
+            started.countDown();
+            await(release);
+        });
+        for (int i = 0; i < 10; i++) {
+            int index = i;
+            executor.submit(PLAYER, () -> ran.add(index));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        
+        Thread shutdown = new Thread(executor::shutdown);
+        shutdown.start();
+        while (executor.isRunning()) {
+            Thread.sleep(1);
+        }
+        
+        // Submitted while shutting down: checked right here instead of being lost
+        List<String> late = new ArrayList<>();
+        assertTrue(executor.submit(OTHER, () -> late.add(Thread.currentThread().getName())));
+        assertEquals(List.of(Thread.currentThread().getName()), late);
+        
+        release.countDown();
+        shutdown.join(5000);
+        assertFalse(shutdown.isAlive());
+        assertEquals(range(10), ran);
+    }
+    
+    private void awaitQueueCount(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getQueueCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, executor.getQueueCount());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static List<Integer> range(int size) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+}
\ No newline at end of file
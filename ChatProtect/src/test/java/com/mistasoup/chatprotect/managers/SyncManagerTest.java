@@ -0,0 +1,147 @@
+package com.mistasoup.chatprotect.managers;
+
+import com.mistasoup.chatprotect.ChatProtect;
+import com.mistasoup.chatprotect.data.ConfigSnapshot;
+import com.mistasoup.chatprotect.data.MuteData;
+import com.mistasoup.chatprotect.sync.LoopbackTransport;
+import com.mistasoup.chatprotect.utils.DebugLog;
+import io.papermc.paper.threadedregions.scheduler.AsyncScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncManagerTest {
+    
+    private static final String CHANNEL = "ChatProtect"; // What sync.transport: loopback uses
+    private static final UUID PLAYER = new UUID(0L, 7L);
+    
+    private Node sender;
+    private Node receiver;
+    private LoopbackTransport sniffer;
+    private final List<byte[]> captured = new ArrayList<>();
+    
+    @BeforeEach
+    void start() {
+        sender = new Node();
+        receiver = new Node();
+        sniffer = new LoopbackTransport(CHANNEL);
+        sniffer.start(captured::add);
+    }
+    
+    @AfterEach
+    void stop() {
+        sender.sync.shutdown();
+        receiver.sync.shutdown();
+        sniffer.close();
+    }
+    
+    @Test
+    void replayedSpamKicksAreNotCountedAgain() {
+        long kickTime = System.currentTimeMillis();
+        sender.sync.publishSpamKick(PLAYER, kickTime);
+        sender.flush();
+        verify(receiver.muteManager, times(1)).recordRemoteSpamKick(PLAYER, kickTime);
+        
+        // Someone on the network sends the same signed batch again
+        assertEquals(1, captured.size());
+        sniffer.send(captured.get(0));
+        sniffer.send(captured.get(0));
+        verify(receiver.muteManager, times(1)).recordRemoteSpamKick(PLAYER, kickTime);
+        
+        // A later kick still counts
+        sender.sync.publishSpamKick(PLAYER, kickTime + 1);
+        sender.flush();
+        verify(receiver.muteManager, times(1)).recordRemoteSpamKick(PLAYER, kickTime + 1);
+    }
+    
+    @Test
+    void replayedMuteChangesDoNotUndoNewerOnes() {
+        sender.sync.publishMute(PLAYER, new MuteData(System.currentTimeMillis() + 60_000L, 60));
+        sender.flush();
+        byte[] mute = captured.get(0);
+        sender.sync.publishUnmute(PLAYER);
+        sender.flush();
+        
+        sniffer.send(mute);
+        verify(receiver.muteManager, times(1)).applyRemoteMute(eq(PLAYER), any());
+        verify(receiver.muteManager, times(1)).applyRemoteUnmute(PLAYER);
+    }
+    
+    @Test
+    void unsentChangesAreCoalescedPerPlayer() {
+        UUID other = new UUID(0L, 8L);
+        sender.sync.publishMute(PLAYER, new MuteData(System.currentTimeMillis() + 60_000L, 60));
+        sender.sync.publishMute(other, new MuteData(System.currentTimeMillis() + 60_000L, 30));
+        sender.sync.publishUnmute(PLAYER);
+        sender.flush();
+        
+        verify(receiver.muteManager, never()).applyRemoteMute(eq(PLAYER), any());
+        verify(receiver.muteManager, times(1)).applyRemoteUnmute(PLAYER);
+        verify(receiver.muteManager, times(1)).applyRemoteMute(eq(other), any());
+        
+        // Sent once, nothing left for the next flush
+        sender.flush();
+        assertEquals(1, captured.size());
+    }
+    
+    /**
+     * One server: a mocked plugin running a real SyncManager over the loopback transport
+     */
+    private static final class Node {
+        
+        private final MuteManager muteManager = mock(MuteManager.class);
+        private final SyncManager sync;
+        private final Consumer<ScheduledTask> flushTask;
+        
+        @SuppressWarnings("unchecked")
+        private Node() {
+            ChatProtect plugin = mock(ChatProtect.class);
+            ConfigManager configManager = mock(ConfigManager.class);
+            ConfigSnapshot config = mock(ConfigSnapshot.class);
+            Server server = mock(Server.class);
+            AsyncScheduler scheduler = mock(AsyncScheduler.class);
+            when(plugin.getConfigManager()).thenReturn(configManager);
+            when(plugin.getMuteManager()).thenReturn(muteManager);
+            when(plugin.getDebugLog()).thenReturn(mock(DebugLog.class));
+            when(plugin.getLogger()).thenReturn(Logger.getLogger("SyncManagerTest"));
+            when(plugin.getServer()).thenReturn(server);
+            when(server.getAsyncScheduler()).thenReturn(scheduler);
+            when(configManager.getSnapshot()).thenReturn(config);
+            when(config.isSyncEnabled()).thenReturn(true);
+            when(config.getSyncTransport()).thenReturn("loopback");
+            when(config.getSyncSecret()).thenReturn("secret");
+            when(config.getSyncFlushIntervalMillis()).thenReturn(1000);
+            
+            sync = new SyncManager(plugin);
+            sync.start();
+            
+            ArgumentCaptor<Consumer<ScheduledTask>> task = ArgumentCaptor.forClass(Consumer.class);
+            verify(scheduler).runAtFixedRate(eq(plugin), task.capture(), anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS));
+            flushTask = task.getValue();
+        }
+        
+        private void flush() {
+            flushTask.accept(null);
+        }
+    }
+}
\ No newline at end of file
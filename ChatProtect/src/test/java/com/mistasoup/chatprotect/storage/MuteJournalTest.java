@@ -0,0 +1,153 @@
+package com.mistasoup.chatprotect.storage;
+
+import com.mistasoup.chatprotect.data.MuteData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MuteJournalTest {
+    
+    private static final int HEADER_SIZE = 5;
+    private static final int RECORD_SIZE = 29;
+    
+    private static final UUID FIRST = new UUID(1, 1);
+    private static final UUID SECOND = new UUID(2, 2);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void replaysMutesAndUnmutesInOrder() throws IOException {
+        Path file = directory.resolve("mutes.journal");
+        MuteJournal journal = new MuteJournal(file.toFile());
+        long expiry = future();
+        
+        journal.append(Arrays.asList(new MuteChange(FIRST, new MuteData(expiry, 60)), new MuteChange(SECOND, new MuteData(expiry, 30))));
+        journal.append(Collections.singletonList(new MuteChange(FIRST, null)));
+        journal.append(Collections.singletonList(new MuteChange(SECOND, new MuteData(expiry + 1000, 31))));
+        journal.close();
+        
+        MuteJournal reopened = new MuteJournal(file.toFile());
+        Map<UUID, MuteData> mutes = reopened.load();
+        
+        assertEquals(1, mutes.size());
+        assertEquals(expiry + 1000, mutes.get(SECOND).getMuteExpiry());
+        assertEquals(31, mutes.get(SECOND).getMuteDuration());
+        assertEquals(4, reopened.getRecordCount());
+    }
+    
+    @Test
+    void tornRecordIsCutOff() throws IOException {
+        Path file = directory.resolve("mutes.journal");
+        MuteJournal journal = new MuteJournal(file.toFile());
+        journal.append(Collections.singletonList(new MuteChange(FIRST, new MuteData(future(), 60))));
+        journal.append(Collections.singletonList(new MuteChange(SECOND, new MuteData(future(), 60))));
+        journal.close();
+        
+        // Crash half way through the second record
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(HEADER_SIZE + RECORD_SIZE + 11);
+        }
+        
+        MuteJournal reopened = new MuteJournal(file.toFile());
+        Map<UUID, MuteData> mutes = reopened.load();
+        assertEquals(Collections.singleton(FIRST), mutes.keySet());
+        assertEquals(1, reopened.getRecordCount());
+        assertEquals(HEADER_SIZE + RECORD_SIZE, Files.size(file));
+        
+        // New appends land right after the last whole record
+        reopened.append(Collections.singletonList(new MuteChange(SECOND, new MuteData(future(), 60))));
+        reopened.close();
+        assertEquals(2, new MuteJournal(file.toFile()).load().size());
+    }
+    
+    @Test
+    void corruptRecordDropsTheRest() throws IOException {
+        Path file = directory.resolve("mutes.journal");
+        MuteJournal journal = new MuteJournal(file.toFile());
+        journal.append(Arrays.asList(new MuteChange(FIRST, new MuteData(future(), 60)), new MuteChange(SECOND, new MuteData(future(), 60))));
+        journal.close();
+        
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(HEADER_SIZE + RECORD_SIZE);
+            raw.write(7); // Not a record type
+        }
+        
+        Map<UUID, MuteData> mutes = new MuteJournal(file.toFile()).load();
+        assertEquals(Collections.singleton(FIRST), mutes.keySet());
+        assertEquals(HEADER_SIZE + RECORD_SIZE, Files.size(file));
+    }
+    
+    @Test
+    void tornHeaderIsTreatedAsEmpty() throws IOException {
+        Path file = directory.resolve("mutes.journal");
+        Files.write(file, new byte[] {0x43, 0x50});
+        
+        MuteJournal journal = new MuteJournal(file.toFile());
+        assertTrue(journal.load().isEmpty());
+        assertFalse(journal.exists());
+    }
+    
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("mutes.journal");
+        Files.write(file, "not a journal at all".getBytes());
+        
+        MuteJournal journal = new MuteJournal(file.toFile());
+        assertThrows(IOException.class, journal::load);
+        
+        // Set aside untouched, new appends go to a fresh journal
+        assertFalse(Files.exists(file));
+        try (Stream<Path> files = Files.list(directory)) {
+            Path corrupt = files.filter(path -> path.getFileName().toString().startsWith("mutes.journal.corrupt-"))
+                .findFirst().orElseThrow();
+            assertEquals("not a journal at all", new String(Files.readAllBytes(corrupt)));
+        }
+        journal.append(Collections.singletonList(new MuteChange(FIRST, new MuteData(future(), 60))));
+        assertTrue(journal.load().containsKey(FIRST));
+    }
+    
+    @Test
+    void compactKeepsOnlyActiveMutes() throws IOException {
+        Path file = directory.resolve("mutes.journal");
+        MuteJournal journal = new MuteJournal(file.toFile());
+        for (int i = 0; i < 10; i++) {
+            journal.append(Collections.singletonList(new MuteChange(FIRST, new MuteData(future(), i))));
+        }
+        
+        Map<UUID, MuteData> live = new HashMap<>();
+        live.put(FIRST, new MuteData(future(), 9));
+        live.put(SECOND, new MuteData(System.currentTimeMillis() - 1000, 5)); // Already expired
+        journal.compact(live);
+        
+        assertEquals(1, journal.getRecordCount());
+        assertEquals(HEADER_SIZE + RECORD_SIZE, Files.size(file));
+        assertFalse(Files.exists(directory.resolve("mutes.journal.tmp")));
+        
+        // Appending after a compaction reopens the new file
+        journal.append(Collections.singletonList(new MuteChange(SECOND, new MuteData(future(), 5))));
+        journal.close();
+        Map<UUID, MuteData> mutes = new MuteJournal(file.toFile()).load();
+        assertEquals(2, mutes.size());
+        assertEquals(9, mutes.get(FIRST).getMuteDuration());
+    }
+    
+    private static long future() {
+        return System.currentTimeMillis() + 3_600_000L;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.mistasoup.chatprotect.sync;
+
+import com.mistasoup.chatprotect.data.MuteData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncCodecTest {
+    
+    private static final UUID SERVER = new UUID(10, 20);
+    private static final UUID PLAYER = new UUID(30, 40);
+    
+    @Test
+    void roundTripsEveryEventType() throws IOException {
+        for (String secret : Arrays.asList(null, "", "shared secret")) {
+            SyncCodec codec = new SyncCodec(SERVER, secret);
+            List<SyncEvent> events = Arrays.asList(
+                SyncEvent.mute(PLAYER, 1000L, new MuteData(5000L, 60)),
+                SyncEvent.unmute(PLAYER, 2000L),
+                SyncEvent.spamKick(new UUID(-1, -2), 3000L)
+            );
+            
+            List<byte[]> payloads = codec.encode(events, 32 * 1024);
+            assertEquals(1, payloads.size());
+            
+            SyncCodec.Batch batch = new SyncCodec(new UUID(0, 1), secret).decode(payloads.get(0));
+            assertEquals(SERVER, batch.getOrigin());
+            assertSameEvents(events, batch.getEvents());
+        }
+    }
+    
+    @Test
+    void splitsIntoPayloadsThatFit() throws IOException {
+        SyncCodec codec = new SyncCodec(SERVER, "secret");
+        List<SyncEvent> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(SyncEvent.mute(new UUID(i, i), i, new MuteData(i * 10L, i)));
+        }
+        
+        List<byte[]> payloads = codec.encode(events, 500);
+        assertTrue(payloads.size() > 1);
+        
+        List<SyncEvent> decoded = new ArrayList<>();
+        for (byte[] payload : payloads) {
+            assertTrue(payload.length <= 500, payload.length + " bytes");
+            decoded.addAll(codec.decode(payload).getEvents());
+        }
+        assertSameEvents(events, decoded);
+        
+        // Too small for even one event still sends them, one per payload
+        assertEquals(3, codec.encode(events.subList(0, 3), 1).size());
+        assertTrue(codec.encode(Collections.emptyList(), 500).isEmpty());
+    }
+    
+    @Test
+    void rejectsTamperedPayloads() throws IOException {
+        SyncCodec codec = new SyncCodec(SERVER, "secret");
+        byte[] payload = codec.encode(Collections.singletonList(SyncEvent.unmute(PLAYER, 1L)), 1024).get(0);
+        
+        for (int i = 0; i < payload.length; i++) {
+            byte[] tampered = payload.clone();
+            tampered[i] ^= 0x01;
+            assertThrows(IOException.class, () -> codec.decode(tampered), "flipped byte " + i);
+        }
+        assertThrows(IOException.class, () -> codec.decode(Arrays.copyOf(payload, payload.length - 1)));
+        assertThrows(IOException.class, () -> codec.decode(new byte[3]));
+    }
+    
+    @Test
+    void rejectsWrongOrMissingSecret() throws IOException {
+        List<SyncEvent> events = Collections.singletonList(SyncEvent.spamKick(PLAYER, 1L));
+        byte[] signed = new SyncCodec(SERVER, "secret").encode(events, 1024).get(0);
+        byte[] unsigned = new SyncCodec(SERVER, null).encode(events, 1024).get(0);
+        
+        assertThrows(IOException.class, () -> new SyncCodec(SERVER, "other secret").decode(signed));
+        assertThrows(IOException.class, () -> new SyncCodec(SERVER, "secret").decode(unsigned));
+        assertThrows(IOException.class, () -> new SyncCodec(SERVER, null).decode(signed));
+    }
+    
+    private static void assertSameEvents(List<SyncEvent> expected, List<SyncEvent> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SyncEvent a = expected.get(i);
+            SyncEvent b = actual.get(i);
+            assertEquals(a.getType(), b.getType());
+            assertEquals(a.getUuid(), b.getUuid());
+            assertEquals(a.getTime(), b.getTime());
+            assertEquals(a.getMuteExpiry(), b.getMuteExpiry());
+            assertEquals(a.getMuteDuration(), b.getMuteDuration());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.mistasoup.chatprotect.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockedWordMatcherTest {
+    
+    private static final String ALPHABET = "abcdeos0134@$! .?";
+    
+    @Test
+    void matchesSameMessagesAsPerWordLoop() {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            List<String> blocked = new ArrayList<>();
+            int count = 1 + random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                blocked.add(randomText(random, 1 + random.nextInt(8)));
+            }
+            BlockedWordMatcher matcher = BlockedWordMatcher.compile(blocked);
+            
+            for (int i = 0; i < 20; i++) {
+                String message = randomText(random, random.nextInt(30));
+                assertEquals(reference(message, blocked), matcher.matches(message),
+                    () -> "message \"" + message + "\" blocked " + blocked);
+            }
+        }
+    }
+    
+    @Test
+    void returnsOriginalEntry() {
+        BlockedWordMatcher matcher = BlockedWordMatcher.compile(Arrays.asList("Sp4m", "scam"));
+        
+        assertEquals("Sp4m", matcher.findMatch("buy spam here"));
+        assertEquals("scam", matcher.findMatch("this is a $c@m"));
+        assertNull(matcher.findMatch("hello there"));
+    }
+    
+    @Test
+    void shortMessagesAndWordsPass() {
+        BlockedWordMatcher matcher = BlockedWordMatcher.compile(Collections.singletonList("hello"));
+        
+        assertFalse(matcher.matches("he"));
+        assertFalse(matcher.matches("  el  "));
+        assertFalse(matcher.matches("so he said yo"));
+        assertTrue(matcher.matches("so hel said yo"));
+    }
+    
+    @Test
+    void wordsWithoutLettersDoNotMatch() {
+        BlockedWordMatcher matcher = BlockedWordMatcher.compile(Collections.singletonList("badword"));
+        
+        assertFalse(matcher.matches("what ??? really ..."));
+    }
+    
+    @Test
+    void emptyAndDuplicateEntriesAreIgnored() {
+        BlockedWordMatcher matcher = BlockedWordMatcher.compile(Arrays.asList("", "...", null, "spam", "SPAM", "5p@m"));
+        
+        assertEquals(1, matcher.size());
+        assertEquals("spam", matcher.findMatch("no spam please"));
+        assertFalse(BlockedWordMatcher.compile(null).matches("anything at all"));
+    }
+    
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+    
+    /**
+     * The word list check as it was before the matcher: every blocked word on its own
+     */
+    private static boolean reference(String message, List<String> blockedWords) {
+        if (message.trim().length() <= 2) {
+            return false;
+        }
+        
+        String normalized = MessageUtils.normalizeMessage(message);
+        for (String blockedWord : blockedWords) {
+            String normalizedBlocked = MessageUtils.normalizeMessage(blockedWord);
+            if (normalizedBlocked.isEmpty()) {
+                continue;
+            }
+            if (normalized.contains(normalizedBlocked)) {
+                return true;
+            }
+            if (MessageUtils.calculateSimilarity(normalized, normalizedBlocked) >= 80) {
+                return true;
+            }
+            for (String word : message.split("\\s+")) {
+                if (word.trim().length() <= 2) {
+                    continue;
+                }
+                String normalizedWord = MessageUtils.normalizeMessage(word);
+                if (!normalizedWord.isEmpty()
+                    && (normalizedWord.contains(normalizedBlocked) || normalizedBlocked.contains(normalizedWord))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
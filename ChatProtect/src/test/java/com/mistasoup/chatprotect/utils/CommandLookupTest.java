@@ -0,0 +1,65 @@
+package com.mistasoup.chatprotect.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CommandLookupTest {
+    
+    private static final List<String> NAMES = Arrays.asList("msg", "/Tell", " w ", "whisper", "r", "reply", "", "m");
+    
+    @Test
+    void matchesSplittingTheCommandLine() {
+        CommandLookup lookup = CommandLookup.compile(NAMES, "ChatProtect:");
+        Set<String> names = new LinkedHashSet<>(Arrays.asList("msg", "tell", "w", "whisper", "r", "reply", "m"));
+        Random random = new Random(29);
+        String[] pieces = {"/", "msg", "MSG", "tell", "w", "W", "hisper", "r", "eply", "m", "x", " ", "chatprotect:", "ChatProtect:", "steve", ":"};
+        
+        for (int i = 0; i < 50000; i++) {
+            StringBuilder line = new StringBuilder();
+            for (int count = random.nextInt(5); count >= 0; count--) {
+                line.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String commandLine = line.toString();
+            assertEquals(reference(commandLine, names, "chatprotect:"), lookup.match(commandLine), commandLine);
+        }
+    }
+    
+    @Test
+    void examples() {
+        CommandLookup lookup = CommandLookup.compile(NAMES, "chatprotect:");
+        
+        assertEquals("msg", lookup.match("/MSG Steve hi"));
+        assertEquals("tell", lookup.match("/chatprotect:tell Steve"));
+        assertEquals("w", lookup.match("/w"));
+        assertNull(lookup.match("/chatprotect:"));
+        assertNull(lookup.match("msg Steve"));
+        assertNull(lookup.match("/ msg"));
+        assertNull(lookup.match("/msgs Steve"));
+        assertNull(lookup.match("/averyveryverylongcommandname"));
+        assertNull(CommandLookup.compile(Arrays.asList(), "chatprotect:").match("/msg"));
+    }
+    
+    /**
+     * Split off the first word, lowercase it and strip the namespace
+     */
+    private static String reference(String commandLine, Set<String> names, String namespace) {
+        if (!commandLine.startsWith("/")) {
+            return null;
+        }
+        int space = commandLine.indexOf(' ');
+        String word = commandLine.substring(1, space < 0 ? commandLine.length() : space).toLowerCase(Locale.ROOT);
+        if (word.startsWith(namespace) && word.length() > namespace.length()) {
+            word = word.substring(namespace.length());
+        }
+        return names.contains(word) ? word : null;
+    }
+}
\ No newline at end of file
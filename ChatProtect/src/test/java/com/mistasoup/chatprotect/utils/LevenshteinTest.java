@@ -0,0 +1,125 @@
+package com.mistasoup.chatprotect.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LevenshteinTest {
+    
+    @Test
+    void boundedDistanceMatchesFullMatrix() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20000; round++) {
+            String s1 = randomText(random, random.nextInt(40), 3);
+            String s2 = mutate(random, s1);
+            int expected = fullDistance(s1, s2);
+            int maxDistance = random.nextInt(20) - 1;
+            
+            assertEquals(expected, MessageUtils.levenshteinDistance(s1, s2), () -> s1 + " / " + s2);
+            assertEquals(Math.min(expected, maxDistance + 1), MessageUtils.levenshteinDistance(s1, s2, maxDistance),
+                () -> s1 + " / " + s2 + " max " + maxDistance);
+        }
+    }
+    
+    @Test
+    void isSimilarMatchesCalculateSimilarity() {
+        Random random = new Random(11);
+        double[] thresholds = {0.0, 50.0, 66.6, 75.0, 80.0, 85.0, 90.0, 99.9, 100.0};
+        for (int round = 0; round < 20000; round++) {
+            String s1 = randomText(random, random.nextInt(30), 4);
+            String s2 = mutate(random, s1);
+            double threshold = thresholds[random.nextInt(thresholds.length)];
+            
+            assertEquals(MessageUtils.calculateSimilarity(s1, s2) >= threshold, MessageUtils.isSimilar(s1, s2, threshold),
+                () -> s1 + " / " + s2 + " at " + threshold);
+        }
+    }
+    
+    @Test
+    void edgeCases() {
+        assertEquals(0, MessageUtils.levenshteinDistance("", ""));
+        assertEquals(3, MessageUtils.levenshteinDistance("", "abc"));
+        assertEquals(3, MessageUtils.levenshteinDistance("kitten", "sitting"));
+        assertEquals(3, MessageUtils.levenshteinDistance("kitten", "sitting", 2));
+        assertEquals(3, MessageUtils.levenshteinDistance("kitten", "sitting", 3));
+        assertEquals(0, MessageUtils.levenshteinDistance("abc", "abcdef", -1));
+        
+        assertTrue(MessageUtils.isSimilar("hello", "hello", 100.0));
+        assertFalse(MessageUtils.isSimilar("", "hello", 50.0));
+        assertFalse(MessageUtils.isSimilar(null, "hello", 50.0));
+        assertTrue(MessageUtils.isSimilar("", "", 0.0));
+    }
+    
+    @Test
+    void longStringsPastTheKeptBuffer() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            String s1 = randomText(random, MessageUtils.MAX_KEPT_BUFFER + random.nextInt(600), 4);
+            String s2 = mutate(random, s1);
+            int expected = fullDistance(s1, s2);
+            
+            assertEquals(expected, MessageUtils.scalarLevenshteinDistance(s1, s2, s1.length() + s2.length()));
+            assertEquals(Math.min(expected, 21), MessageUtils.scalarLevenshteinDistance(s1, s2, 20));
+        }
+        // A short call afterwards still gets right-sized buffers
+        assertEquals(3, MessageUtils.scalarLevenshteinDistance("kitten", "sitting", 10));
+    }
+    
+    static String randomText(Random random, int length, int letters) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(letters)));
+        }
+        return text.toString();
+    }
+    
+    /**
+     * A few random edits, so most pairs are close enough to hit the threshold paths
+     */
+    static String mutate(Random random, String text) {
+        StringBuilder result = new StringBuilder(text);
+        int edits = random.nextInt(Math.max(1, text.length() / 3) + 2);
+        for (int i = 0; i < edits; i++) {
+            int position = result.length() == 0 ? 0 : random.nextInt(result.length());
+            char c = (char) ('a' + random.nextInt(4));
+            switch (random.nextInt(3)) {
+                case 0 -> result.insert(position, c);
+                case 1 -> {
+                    if (result.length() > 0) {
+                        result.deleteCharAt(position);
+                    }
+                }
+                default -> {
+                    if (result.length() > 0) {
+                        result.setCharAt(position, c);
+                    }
+                }
+            }
+        }
+        return result.toString();
+    }
+    
+    /**
+     * Plain full matrix Levenshtein, the reference
+     */
+    static int fullDistance(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= s2.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+            }
+        }
+        return dp[s1.length()][s2.length()];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.mistasoup.chatprotect.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NormalizationTest {
+    
+    @Test
+    void asciiIsNormalizedLikeBefore() {
+        Random random = new Random(31);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder message = new StringBuilder();
+            for (int length = random.nextInt(40); length > 0; length--) {
+                message.append((char) random.nextInt(128));
+            }
+            String text = message.toString();
+            assertEquals(reference(text), MessageUtils.normalizeMessage(text));
+        }
+    }
+    
+    @Test
+    void foldsLookAlikesAndDropsInvisibles() {
+        assertEquals("spam", MessageUtils.normalizeMessage("\u0455\u0440\u0430\u043c")); // Cyrillic
+        assertEquals("spam", MessageUtils.normalizeMessage("\uff33\uff30\uff21\uff2d")); // Full-width
+        assertEquals("spam", MessageUtils.normalizeMessage("s\u200bp\u00adam\u3164")); // Zero-width, soft hyphen, Hangul filler
+        assertEquals("spam", MessageUtils.normalizeMessage("sp\u00e4m"));
+        assertEquals("spam", MessageUtils.normalizeMessage("\ud835\udc2c\ud835\udc29\ud835\udc1a\ud835\udc26")); // Math bold
+        assertEquals("spam", MessageUtils.normalizeMessage("\ud83c\uddf8\ud83c\uddf5\ud83c\udde6\ud83c\uddf2")); // Regional indicators
+        assertEquals("spam", MessageUtils.normalizeMessage("\ua731\u1d18\u1d00\u1d0d")); // Small caps
+        assertEquals("", MessageUtils.normalizeMessage("\ud83d\ude00 ?.\u0000"));
+        assertEquals("", MessageUtils.normalizeMessage(null));
+    }
+    
+    @Test
+    void singleCharactersMatchWholeMessages() {
+        for (char c = 0; c < Character.MAX_VALUE; c++) {
+            if (Character.isSurrogate(c)) {
+                continue;
+            }
+            char normalized = MessageUtils.normalizeChar(c);
+            assertEquals(normalized == 0 ? "" : String.valueOf(normalized), MessageUtils.normalizeMessage(String.valueOf(c)));
+        }
+    }
+    
+    @Test
+    void reusesBuffersSafely() {
+        String normalized = "alreadynormalized";
+        assertSame(normalized, MessageUtils.normalizeMessage(normalized));
+        
+        String longMessage = "A!b ".repeat(MessageUtils.MAX_KEPT_BUFFER);
+        String expected = "aib".repeat(MessageUtils.MAX_KEPT_BUFFER);
+        assertEquals(expected, MessageUtils.normalizeMessage(longMessage));
+        assertEquals("hi", MessageUtils.normalizeMessage("H!"));
+        assertEquals(expected, MessageUtils.normalizeMessage(longMessage));
+    }
+    
+    /**
+     * normalizeMessage before the table: lowercase, leetspeak map, letters and digits only
+     */
+    private static String reference(String message) {
+        Map<Character, Character> substitutions = new HashMap<>();
+        String pairs = "0o1i3e4a5s6g7t8b9g@a$s!i+t*x";
+        for (int i = 0; i < pairs.length(); i += 2) {
+            substitutions.put(pairs.charAt(i), pairs.charAt(i + 1));
+        }
+        
+        StringBuilder normalized = new StringBuilder();
+        for (char c : message.toLowerCase().toCharArray()) {
+            if (substitutions.containsKey(c)) {
+                normalized.append(substitutions.get(c));
+            } else if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+}
\ No newline at end of file
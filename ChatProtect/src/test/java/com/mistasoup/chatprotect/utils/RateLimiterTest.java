@@ -0,0 +1,58 @@
+package com.mistasoup.chatprotect.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    
+    @Test
+    void matchesKeepingEveryTimestamp() {
+        Random random = new Random(17);
+        for (int round = 0; round < 200; round++) {
+            int limit = random.nextInt(8);
+            long window = 1 + random.nextInt(2000);
+            RateLimiter limiter = new RateLimiter(limit);
+            List<Long> history = new ArrayList<>();
+            long now = random.nextInt(1000);
+            
+            for (int i = 0; i < 500; i++) {
+                now += random.nextInt(400);
+                history.add(now);
+                long cutoff = now - window;
+                long inWindow = history.stream().filter(time -> time >= cutoff).count();
+                
+                assertEquals(inWindow > limit, limiter.record(now, window));
+                assertEquals(Math.min(inWindow, limit + 1), limiter.count(now, window));
+            }
+        }
+    }
+    
+    @Test
+    void windowEdgeIsInclusive() {
+        RateLimiter limiter = new RateLimiter(2);
+        
+        assertFalse(limiter.record(1000L, 500L));
+        assertFalse(limiter.record(1200L, 500L));
+        assertTrue(limiter.record(1500L, 500L)); // 1000 is exactly one window back, still counts
+        assertEquals(1, limiter.count(2000L, 500L));
+        assertEquals(0, limiter.count(2001L, 500L));
+        assertTrue(limiter.isEmpty());
+    }
+    
+    @Test
+    void zeroLimitAndClear() {
+        RateLimiter limiter = new RateLimiter(-3);
+        
+        assertEquals(0, limiter.getLimit());
+        assertTrue(limiter.record(0L, 100L));
+        limiter.clear();
+        assertEquals(0, limiter.size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.mistasoup.chatprotect.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentMessageIndexTest {
+    
+    private static final long WINDOW = 10_000L;
+    
+    @Test
+    void findsSameSendersAsScanningTheWindow() {
+        Random random = new Random(23);
+        int maxEntries = 300;
+        RecentMessageIndex index = new RecentMessageIndex(maxEntries);
+        ArrayDeque<long[]> window = new ArrayDeque<>(); // {sender, fingerprint, time}, oldest first
+        long[] bases = {random.nextLong(), random.nextLong(), random.nextLong()};
+        long now = 0L;
+        
+        for (int i = 0; i < 20000; i++) {
+            now += random.nextInt(60);
+            long sender = random.nextInt(200);
+            long fingerprint = bases[random.nextInt(bases.length)];
+            for (int flips = random.nextInt(10); flips > 0; flips--) {
+                fingerprint ^= 1L << random.nextInt(64);
+            }
+            int maxDistance = random.nextInt(RecentMessageIndex.MAX_DISTANCE + 1);
+            
+            while (!window.isEmpty() && window.peekFirst()[2] < now - WINDOW) {
+                window.pollFirst();
+            }
+            Set<UUID> expected = new LinkedHashSet<>();
+            expected.add(uuid(sender));
+            for (long[] entry : window) {
+                if (SimHash.distance(entry[1], fingerprint) <= maxDistance) {
+                    expected.add(uuid(entry[0]));
+                }
+            }
+            window.addLast(new long[] {sender, fingerprint, now});
+            while (window.size() > maxEntries) {
+                window.pollFirst();
+            }
+            
+            Set<UUID> found = index.addAndFindSenders(uuid(sender), fingerprint, now, WINDOW, maxDistance, Integer.MAX_VALUE);
+            assertEquals(expected, found);
+            assertEquals(window.size(), index.size());
+        }
+    }
+    
+    @Test
+    void stopsAtLimit() {
+        RecentMessageIndex index = new RecentMessageIndex(100);
+        for (int i = 0; i < 20; i++) {
+            index.addAndFindSenders(uuid(i), 42L, 0L, WINDOW, 0, Integer.MAX_VALUE);
+        }
+        
+        Set<UUID> found = index.addAndFindSenders(uuid(99), 42L, 0L, WINDOW, 0, 5);
+        assertEquals(5, found.size());
+        assertTrue(found.contains(uuid(99)));
+    }
+    
+    @Test
+    void similarMessagesHaveCloseFingerprints() {
+        long original = SimHash.of("joinourserverplayhypixelnetworknow");
+        
+        assertEquals(0, SimHash.distance(original, SimHash.of("joinourserverplayhypixelnetworknow")));
+        assertTrue(SimHash.distance(original, SimHash.of("joinourserverplayhypixelnetworknow1")) <= RecentMessageIndex.MAX_DISTANCE);
+        assertTrue(SimHash.distance(original, SimHash.of("anyonewanttotradediamondsforiron")) > RecentMessageIndex.MAX_DISTANCE);
+        assertEquals(SimHash.of("hi"), SimHash.of("hi"));
+    }
+    
+    private static UUID uuid(long id) {
+        return new UUID(0L, id);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.mistasoup.chatprotect.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+    
+    private static final long TICK = 50L;
+    
+    private long now; // Clock passed to the last advance()
+    
+    @Test
+    void firesEachTimeoutOnceAndOnTime() {
+        Random random = new Random(13);
+        now = 1_000_000L;
+        TimerWheel wheel = new TimerWheel(TICK, now, e -> { throw e; });
+        List<Scheduled> scheduled = new ArrayList<>();
+        
+        for (int step = 0; step < 2000; step++) {
+            for (int i = random.nextInt(4); i > 0; i--) {
+                scheduled.add(new Scheduled(wheel, now + randomDelay(random)));
+            }
+            if (!scheduled.isEmpty() && random.nextInt(4) == 0) {
+                Scheduled victim = scheduled.get(random.nextInt(scheduled.size()));
+                if (victim.timeout.cancel()) {
+                    victim.cancelled = true;
+                }
+            }
+            
+            // Mostly small steps, now and then a jump far enough to wrap the upper levels
+            now += random.nextInt(20) == 0 ? random.nextInt(50_000_000) : random.nextInt(500);
+            wheel.advance(now);
+            
+            for (Scheduled entry : scheduled) {
+                if (entry.cancelled) {
+                    assertEquals(0, entry.fired);
+                    continue;
+                }
+                assertTrue(entry.fired <= 1, "fired twice");
+                if (entry.fired == 1) {
+                    assertTrue(entry.firedAt >= entry.deadline, "fired early");
+                } else {
+                    // Still waiting is only fine while its (rounded up) tick hasn't come
+                    long deadlineTick = Math.floorDiv(entry.deadline + TICK - 1, TICK);
+                    assertTrue(Math.floorDiv(now, TICK) < deadlineTick, () -> "missed deadline " + entry.deadline + " at " + now);
+                }
+            }
+        }
+        
+        long waiting = scheduled.stream().filter(entry -> !entry.cancelled && entry.fired == 0).count();
+        assertEquals(waiting, wheel.size());
+    }
+    
+    @Test
+    void pastDeadlinesFireOnNextAdvance() {
+        List<String> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, 10_000L, e -> { throw e; });
+        
+        wheel.schedule(0L, timeout -> fired.add("past"));
+        wheel.schedule(10_000L, timeout -> fired.add("now"));
+        wheel.advance(10_000L);
+        
+        assertEquals(List.of("past", "now"), fired);
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void cancelAndClear() {
+        List<String> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, 0L, e -> { throw e; });
+        
+        TimerWheel.Timeout cancelled = wheel.schedule(100L, timeout -> fired.add("cancelled"));
+        TimerWheel.Timeout kept = wheel.schedule(100L, timeout -> fired.add("kept"));
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        wheel.advance(100L);
+        
+        assertEquals(List.of("kept"), fired);
+        assertTrue(kept.isExpired());
+        assertFalse(kept.cancel());
+        
+        wheel.schedule(200L, timeout -> fired.add("cleared"));
+        wheel.clear();
+        wheel.advance(1000L);
+        assertEquals(List.of("kept"), fired);
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void failingTaskDoesNotStopOthers() {
+        List<RuntimeException> errors = new ArrayList<>();
+        List<String> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, 0L, errors::add);
+        
+        wheel.schedule(100L, timeout -> { throw new IllegalStateException("boom"); });
+        wheel.schedule(100L, timeout -> fired.add("after"));
+        wheel.advance(100L);
+        
+        assertEquals(1, errors.size());
+        assertEquals(List.of("after"), fired);
+    }
+    
+    private static long randomDelay(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(3200); // Level 0
+            case 1:
+                return random.nextInt(200_000);
+            case 2:
+                return random.nextInt(100_000_000);
+            default:
+                return 1_000_000_000L + random.nextInt(1_000_000_000); // Past the top level
+        }
+    }
+    
+    private final class Scheduled {
+        
+        private final long deadline;
+        private final TimerWheel.Timeout timeout;
+        private int fired;
+        private long firedAt;
+        private boolean cancelled;
+        
+        private Scheduled(TimerWheel wheel, long deadline) {
+            this.deadline = deadline;
+            this.timeout = wheel.schedule(deadline, timeout -> {
+                fired++;
+                firedAt = now;
+            });
+        }
+    }
+}
\ No newline at end of file
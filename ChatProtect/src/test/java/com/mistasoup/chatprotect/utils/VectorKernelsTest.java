@@ -0,0 +1,62 @@
+package com.mistasoup.chatprotect.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Needs --add-modules jdk.incubator.vector (set for surefire in pom.xml), skipped without it
+ */
+class VectorKernelsTest {
+    
+    @BeforeEach
+    void requireVectorKernel() {
+        assumeTrue(MessageUtils.hasVectorKernel(), "Vector API kernel not available");
+    }
+    
+    @Test
+    void matchesScalarKernel() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20000; round++) {
+            String s1 = LevenshteinTest.randomText(random, random.nextInt(200), 3);
+            String s2 = LevenshteinTest.mutate(random, s1);
+            int maxDistance = random.nextInt(Math.max(s1.length(), s2.length()) + 2) - 1;
+            
+            assertEquals(MessageUtils.scalarLevenshteinDistance(s1, s2, maxDistance),
+                MessageUtils.vectorLevenshteinDistance(s1, s2, maxDistance),
+                () -> s1 + " / " + s2 + " max " + maxDistance);
+            assertEquals(MessageUtils.scalarLevenshteinDistance(s1, s2, maxDistance),
+                MessageUtils.levenshteinDistance(s1, s2, maxDistance));
+        }
+    }
+    
+    @Test
+    void matchesFullMatrixOnLongStrings() {
+        Random random = new Random(9);
+        for (int round = 0; round < 20; round++) {
+            String s1 = LevenshteinTest.randomText(random, 800 + random.nextInt(800), 4);
+            String s2 = LevenshteinTest.mutate(random, s1);
+            int expected = LevenshteinTest.fullDistance(s1, s2);
+            
+            assertEquals(expected, MessageUtils.vectorLevenshteinDistance(s1, s2, s1.length() + s2.length()));
+            assertEquals(Math.min(expected, 51), MessageUtils.vectorLevenshteinDistance(s1, s2, 50));
+        }
+    }
+    
+    @Test
+    void edgeCases() {
+        assertEquals(0, MessageUtils.vectorLevenshteinDistance("", "", 0));
+        assertEquals(4, MessageUtils.vectorLevenshteinDistance("", "abcd", 5));
+        assertEquals(3, MessageUtils.vectorLevenshteinDistance("", "abcd", 2));
+        assertEquals(0, MessageUtils.vectorLevenshteinDistance("abc", "abd", -1));
+        assertEquals(3, MessageUtils.vectorLevenshteinDistance("kitten", "sitting", 10));
+        assertEquals(0, MessageUtils.vectorLevenshteinDistance("same", "same", 0));
+        
+        // Characters past Latin-1 are compared as whole chars
+        assertEquals(1, MessageUtils.vectorLevenshteinDistance("café中", "café丮", 3));
+    }
+}
\ No newline at end of file